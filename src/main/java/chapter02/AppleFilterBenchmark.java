@@ -0,0 +1,98 @@
+package chapter02;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import chapter02.FilteringApples.Apple;
+import chapter02.FilteringApples.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static chapter02.AppleInventory.colorIs;
+import static chapter02.AppleInventory.weightGreaterThan;
+
+/**
+ * List<Apple>을 ApplePredicate로 필터링하는 방식과 열 기반 AppleInventory의 비트맵 필터링 비교
+ * (빨갛고 150g보다 무거운 사과)
+ * 결과의 형태가 같은 것끼리 비교한다.
+ * - List<Apple> : listFilter, listFilterLambda, columnarFilter (비트맵에 표시된 사과를 객체로 만듦)
+ * - 인덱스 : columnarFilterIndexes (객체를 만들지 않고 일치하는 위치만 int[]로 반환)
+ * - 개수 : listFilterCount, columnarFilterCount (결과를 만들지 않고 필터링 비용만 비교)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 5)
+public class AppleFilterBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private List<Apple> apples;
+    private AppleInventory inventory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        apples = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            apples.add(new Apple(50 + random.nextInt(200), random.nextBoolean() ? Color.RED : Color.GREEN));
+        }
+        inventory = AppleInventory.of(apples);
+    }
+
+    @Benchmark
+    public List<Apple> listFilter() {
+        return FilteringApples.filter(apples, new FilteringApples.AppleRedAndHeavyPredicate());
+    }
+
+    @Benchmark
+    public List<Apple> listFilterLambda() {
+        return FilteringApples.filter(apples, a -> a.getColor() == Color.RED && a.getWeight() > 150);
+    }
+
+    @Benchmark
+    public int listFilterCount() {
+        int count = 0;
+        for (Apple apple : apples) {
+            if (apple.getColor() == Color.RED && apple.getWeight() > 150) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<Apple> columnarFilter() {
+        return inventory.toList(inventory.filter(redAndHeavy()));
+    }
+
+    @Benchmark
+    public int[] columnarFilterIndexes() {
+        return inventory.filter(redAndHeavy()).stream().toArray();
+    }
+
+    @Benchmark
+    public int columnarFilterCount() {
+        return inventory.filter(redAndHeavy()).cardinality();
+    }
+
+    private static AppleInventory.ColumnPredicate redAndHeavy() {
+        return colorIs(Color.RED).and(weightGreaterThan(150));
+    }
+
+}
@@ -0,0 +1,176 @@
+package chapter02;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import chapter02.FilteringApples.Apple;
+import chapter02.FilteringApples.Color;
+
+/**
+ * 사과 객체의 리스트 대신 무게와 색상을 각각 기본형 배열(열)에 저장하는 재고.
+ * 조건은 열 하나를 탐색하는 단순한 루프로 평가되어 일치하는 위치를 비트맵으로 만들고,
+ * 여러 조건은 비트맵을 64개씩 AND/OR 해서 조합한다. (요소마다 predicate를 가상 호출하지 않음)
+ */
+public class AppleInventory {
+
+    private static final Color[] COLORS = Color.values();
+
+    private int[] weights;
+    private byte[] colors; // Color의 ordinal
+    private int size;
+
+    public AppleInventory(int capacity) {
+        this.weights = new int[capacity];
+        this.colors = new byte[capacity];
+    }
+
+    public static AppleInventory of(List<Apple> apples) {
+        AppleInventory inventory = new AppleInventory(apples.size());
+        for (Apple apple : apples) {
+            inventory.add(apple.getWeight(), apple.getColor());
+        }
+        return inventory;
+    }
+
+    public void add(int weight, Color color) {
+        if (size == weights.length) {
+            int capacity = Math.max(16, size * 2);
+            weights = Arrays.copyOf(weights, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+        }
+        weights[size] = weight;
+        colors[size] = (byte) color.ordinal();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Apple get(int index) {
+        return new Apple(weights[index], COLORS[colors[index]]);
+    }
+
+    /**
+     * @return 조건을 만족하는 사과의 인덱스를 표시한 비트맵
+     */
+    public BitSet filter(ColumnPredicate predicate) {
+        return BitSet.valueOf(predicate.evaluate(this));
+    }
+
+    /**
+     * 비트맵에 표시된 사과만 객체로 만든다.
+     */
+    public List<Apple> toList(BitSet matches) {
+        List<Apple> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    private long[] newBitmap() {
+        return new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * 재고 전체를 평가해서 일치하는 위치를 비트맵(long 하나에 64개)으로 반환하는 조건
+     */
+    @FunctionalInterface
+    public interface ColumnPredicate {
+
+        long[] evaluate(AppleInventory inventory);
+
+        default ColumnPredicate and(ColumnPredicate other) {
+            return inventory -> {
+                long[] left = evaluate(inventory);
+                long[] right = other.evaluate(inventory);
+                for (int i = 0; i < left.length; i++) {
+                    left[i] &= right[i];
+                }
+                return left;
+            };
+        }
+
+        default ColumnPredicate or(ColumnPredicate other) {
+            return inventory -> {
+                long[] left = evaluate(inventory);
+                long[] right = other.evaluate(inventory);
+                for (int i = 0; i < left.length; i++) {
+                    left[i] |= right[i];
+                }
+                return left;
+            };
+        }
+
+        default ColumnPredicate negate() {
+            return inventory -> {
+                long[] bitmap = evaluate(inventory);
+                for (int i = 0; i < bitmap.length; i++) {
+                    bitmap[i] = ~bitmap[i];
+                }
+                int tail = inventory.size & 63; // 재고 크기를 넘는 비트는 지운다.
+                if (tail != 0) {
+                    bitmap[bitmap.length - 1] &= (1L << tail) - 1;
+                }
+                return bitmap;
+            };
+        }
+
+    }
+
+    public static ColumnPredicate colorIs(Color color) {
+        byte ordinal = (byte) color.ordinal();
+        return inventory -> {
+            byte[] colors = inventory.colors;
+            long[] bitmap = inventory.newBitmap();
+            for (int word = 0; word < bitmap.length; word++) {
+                int base = word << 6;
+                int limit = Math.min(64, inventory.size - base);
+                long bits = 0;
+                for (int j = 0; j < limit; j++) { // 분기 없이 비교 결과를 비트로 모은다.
+                    bits |= (colors[base + j] == ordinal ? 1L : 0L) << j;
+                }
+                bitmap[word] = bits;
+            }
+            return bitmap;
+        };
+    }
+
+    public static ColumnPredicate weightGreaterThan(int weight) {
+        return inventory -> {
+            int[] weights = inventory.weights;
+            long[] bitmap = inventory.newBitmap();
+            for (int word = 0; word < bitmap.length; word++) {
+                int base = word << 6;
+                int limit = Math.min(64, inventory.size - base);
+                long bits = 0;
+                for (int j = 0; j < limit; j++) {
+                    bits |= (weights[base + j] > weight ? 1L : 0L) << j;
+                }
+                bitmap[word] = bits;
+            }
+            return bitmap;
+        };
+    }
+
+    public static ColumnPredicate weightLessThan(int weight) {
+        return inventory -> {
+            int[] weights = inventory.weights;
+            long[] bitmap = inventory.newBitmap();
+            for (int word = 0; word < bitmap.length; word++) {
+                int base = word << 6;
+                int limit = Math.min(64, inventory.size - base);
+                long bits = 0;
+                for (int j = 0; j < limit; j++) {
+                    bits |= (weights[base + j] < weight ? 1L : 0L) << j;
+                }
+                bitmap[word] = bits;
+            }
+            return bitmap;
+        };
+    }
+
+}
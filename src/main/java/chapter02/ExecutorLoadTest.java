@@ -0,0 +1,72 @@
+package chapter02;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * 블로킹 작업을 대량으로 실행해서 TaskExecutor의 모드별 처리량과 메모리 사용량을 비교한다.
+ * 실행 인수 : [작업 수 (기본 1,000,000)] [작업당 블로킹 시간 ms (기본 10)]
+ *            [플랫폼 스레드 최대 동시 실행 수 (기본 10,000)] [가상 스레드 최대 동시 실행 수 (기본 제한 없음)]
+ * 최대 동시 실행 수가 0 이하면 제한하지 않는다. 각 실행이 사용한 제한은 limit 열에 출력한다.
+ * 플랫폼 스레드는 작업마다 OS 스레드를 만드므로 제한이 필요하지만, 가상 스레드를 같은 값으로 제한하면
+ * 가상 스레드의 처리량도 그 값에 묶여서 두 모드의 차이가 드러나지 않는다.
+ * 가상 스레드 모드는 Java 21 이상에서 실행할 때만 측정한다.
+ */
+public class ExecutorLoadTest {
+
+    public static void main(String... args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long blockMillis = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        int platformConcurrency = limit(args.length > 2 ? Integer.parseInt(args[2]) : 10_000);
+        int virtualConcurrency = limit(args.length > 3 ? Integer.parseInt(args[3]) : 0);
+
+        System.out.println("mode,limit,tasks,elapsed_ms,tasks_per_sec,peak_threads,heap_used_mb,non_heap_used_mb");
+        run(TaskExecutor.Mode.PLATFORM, tasks, blockMillis, platformConcurrency);
+        if (TaskExecutor.isVirtualThreadSupported()) {
+            run(TaskExecutor.Mode.VIRTUAL, tasks, blockMillis, virtualConcurrency);
+        } else {
+            System.out.println("# VIRTUAL skipped: requires Java 21 or later");
+        }
+    }
+
+    // 0 이하면 제한 없음
+    private static int limit(int maxConcurrency) {
+        return maxConcurrency > 0 ? maxConcurrency : Integer.MAX_VALUE;
+    }
+
+    private static void run(TaskExecutor.Mode mode, int tasks, long blockMillis, int maxConcurrency) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        System.gc();
+
+        long start = System.nanoTime();
+        long completed = 0;
+        MemoryUsage heap;
+        MemoryUsage nonHeap;
+        try (TaskExecutor executor = new TaskExecutor(mode, maxConcurrency)) {
+            List<Future<Integer>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    Thread.sleep(blockMillis); // I/O 호출을 흉내내는 블로킹 작업
+                    return 1;
+                }));
+            }
+            // 모든 작업이 제출된 시점의 메모리 사용량
+            heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+            for (Future<Integer> future : futures) {
+                completed += future.get();
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        String limit = maxConcurrency == Integer.MAX_VALUE ? "unbounded" : String.valueOf(maxConcurrency);
+        System.out.println(mode + "," + limit + "," + completed + "," + elapsedMillis + "," + completed * 1000 / elapsedMillis + ","
+                + threads.getPeakThreadCount() + "," + heap.getUsed() / (1024 * 1024) + "," + nonHeap.getUsed() / (1024 * 1024));
+    }
+
+}
@@ -0,0 +1,167 @@
+package chapter02;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilteringApples의 Callable 예제처럼 작업을 제출하되, 플랫폼 스레드와 가상 스레드 중 하나를 선택할 수 있는 실행기.
+ * 동시에 실행되는 작업 수를 제한하고(제한에 걸리면 제출하는 스레드가 기다린다),
+ * invokeAll은 작업이 실패하면 나머지 작업을 모두 취소한다.
+ * 작업이 정상 종료, 예외, 취소 중 어떻게 끝나든 FutureTask의 done()에서 자리를 돌려준다.
+ */
+public class TaskExecutor implements AutoCloseable {
+
+    public enum Mode {
+        PLATFORM, // Executors.newCachedThreadPool()
+        VIRTUAL // Executors.newVirtualThreadPerTaskExecutor() (Java 21 이상)
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * @param maxConcurrency 동시에 실행할 수 있는 최대 작업 수
+     */
+    public TaskExecutor(Mode mode, int maxConcurrency) {
+        this.executor = mode == Mode.VIRTUAL ? newVirtualThreadExecutor() : Executors.newCachedThreadPool();
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // 자바 8로 컴파일해도 Java 21 이상에서 실행하면 가상 스레드를 사용할 수 있도록 리플렉션으로 생성한다.
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * 실행 중인 작업 수가 최대치에 도달했으면 자리가 날 때까지 기다린 다음 제출한다.
+     * 실행 중인 작업을 cancel(true)로 취소하면 작업이 인터럽트에 응답하기 전에 자리가 반환될 수 있다.
+     */
+    public <T> Future<T> submit(Callable<T> task) throws InterruptedException {
+        return submit(task, null);
+    }
+
+    /**
+     * @param completed null이 아니면 작업이 끝났을 때 그 Future를 넣을 큐
+     */
+    private <T> Future<T> submit(Callable<T> task, BlockingQueue<Future<T>> completed) throws InterruptedException {
+        permits.acquire();
+        PermitTask<T> future = new PermitTask<>(task, completed);
+        try {
+            executor.execute(future);
+        } catch (RuntimeException e) { // 제출이 거부되면 done()이 호출되지 않으므로 직접 자리를 돌려준다.
+            permits.release();
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * 모든 작업을 실행하고 제출 순서대로 결과를 반환한다.
+     * 작업이 끝나는 순서대로 결과를 확인하므로 어느 작업이든 실패하면 (제출하는 도중이라도) 바로 알 수 있고,
+     * 그때나 기다리는 도중 인터럽트되면 아직 끝나지 않은 작업을 모두 취소(인터럽트)한다.
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+        boolean succeeded = false;
+        try {
+            int remaining = 0;
+            for (Callable<T> task : tasks) {
+                futures.add(submit(task, completed));
+                remaining++;
+                for (Future<T> done = completed.poll(); done != null; done = completed.poll()) {
+                    done.get(); // 실패한 작업이 있으면 ExecutionException
+                    remaining--;
+                }
+            }
+            for (; remaining > 0; remaining--) {
+                completed.take().get();
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get()); // 모두 끝났으므로 기다리지 않는다.
+            }
+            succeeded = true;
+            return results;
+        } finally {
+            if (!succeeded) {
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 새 작업을 받지 않고 제출된 작업이 모두 끝날 때까지 기다린다.
+     * 기다리는 도중 인터럽트되면 남은 작업을 모두 취소하고, 끝날 때까지 기다린 다음 인터럽트 상태를 복원한다.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                if (!interrupted) {
+                    executor.shutdownNow();
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 어떤 식으로 끝나든 한 번만 호출되는 done()에서 자리를 돌려주고 완료 큐에 넣는다.
+    private final class PermitTask<T> extends FutureTask<T> {
+
+        private final BlockingQueue<Future<T>> completed;
+
+        PermitTask(Callable<T> task, BlockingQueue<Future<T>> completed) {
+            super(task);
+            this.completed = completed;
+        }
+
+        @Override
+        protected void done() {
+            permits.release();
+            if (completed != null) {
+                completed.add(this);
+            }
+        }
+
+    }
+
+}
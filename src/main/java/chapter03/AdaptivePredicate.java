@@ -0,0 +1,217 @@
+package chapter03;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 여러 Predicate를 AND(allOf) 또는 OR(anyOf)로 조합하면서 절(clause)마다 통과율과 평가 비용을 측정하고,
+ * 일정 횟수마다 가장 싸고 결과를 가장 빨리 결정하는 절부터 평가하도록 순서를 다시 정한다.
+ * 절은 다른 AdaptivePredicate일 수 있으므로 조건 트리 전체가 각 단계에서 스스로 최적화된다.
+ *
+ * 통계는 스레드마다 따로 모으므로(Statistics) 병렬 스트림에서도 공유 필드에 쓰거나 갱신을 잃어버리지 않는다.
+ * 각 스레드는 자기 통계로 새 평가 계획을 만들어 CAS로 게시하고, 모든 스레드는 게시된 불변 계획을 읽기만 한다.
+ * 스레드마다 스트림의 요소를 고르게 나눠 받으므로 한 스레드의 통계로도 전체 순서를 정할 수 있다.
+ */
+public class AdaptivePredicate<T> implements Predicate<T> {
+
+    private static final int SAMPLE_INTERVAL = 64; // 이 횟수마다 한 번씩 절의 평가 시간을 측정
+    private static final int REPLAN_INTERVAL = 4096; // 이 횟수마다 평가 순서를 다시 정함
+    private static final int MIN_HISTORY = 16; // 누적값을 줄여도 이 횟수 이상은 남겨서 통계가 0이 되지 않게 함
+
+    private final boolean conjunction; // true: 모든 절을 만족 (AND), false: 하나라도 만족 (OR)
+    private final List<Predicate<T>> clauses;
+    private final AtomicReference<Plan> plan; // 현재 평가 계획
+    private final ConcurrentMap<Thread, Statistics> statistics = new ConcurrentHashMap<>(); // 스레드별 통계
+
+    private AdaptivePredicate(boolean conjunction, List<Predicate<T>> clauses) {
+        int n = clauses.size();
+        this.conjunction = conjunction;
+        this.clauses = clauses;
+        double[] unknown = new double[n];
+        Arrays.fill(unknown, Double.NaN); // 아직 측정하지 않음
+        // 처음에는 선언한 순서대로 평가
+        this.plan = new AtomicReference<>(new Plan(IntStream.range(0, n).toArray(), unknown, new double[n]));
+    }
+
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> allOf(Predicate<T>... clauses) {
+        List<Predicate<T>> list = new ArrayList<>(clauses.length);
+        for (Predicate<T> clause : clauses) { // 가변 인수 배열을 밖으로 넘기지 않고 복사한다.
+            list.add(clause);
+        }
+        return allOf(list);
+    }
+
+    public static <T> AdaptivePredicate<T> allOf(List<? extends Predicate<T>> clauses) {
+        return new AdaptivePredicate<>(true, new ArrayList<>(clauses));
+    }
+
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> anyOf(Predicate<T>... clauses) {
+        List<Predicate<T>> list = new ArrayList<>(clauses.length);
+        for (Predicate<T> clause : clauses) { // 가변 인수 배열을 밖으로 넘기지 않고 복사한다.
+            list.add(clause);
+        }
+        return anyOf(list);
+    }
+
+    public static <T> AdaptivePredicate<T> anyOf(List<? extends Predicate<T>> clauses) {
+        return new AdaptivePredicate<>(false, new ArrayList<>(clauses));
+    }
+
+    @Override
+    public boolean test(T t) {
+        Statistics stats = statistics();
+        Plan current = plan.get();
+        long n = ++stats.tests;
+        if (n % REPLAN_INTERVAL == 0) {
+            current = replan(stats, current);
+        }
+        return n % SAMPLE_INTERVAL == 0 ? testSampled(t, current.order, stats) : testFast(t, current.order, stats);
+    }
+
+    // 현재 스레드의 통계. 각 Statistics는 키인 스레드만 읽고 쓴다.
+    private Statistics statistics() {
+        Thread current = Thread.currentThread();
+        Statistics stats = statistics.get(current);
+        if (stats == null) {
+            stats = statistics.computeIfAbsent(current, thread -> new Statistics(clauses.size()));
+        }
+        return stats;
+    }
+
+    private boolean testFast(T t, int[] order, Statistics stats) {
+        for (int i : order) {
+            boolean result = clauses.get(i).test(t);
+            stats.evaluations[i]++;
+            if (result) {
+                stats.passes[i]++;
+            }
+            if (result != conjunction) { // AND는 false, OR는 true가 나오면 결과가 결정된다.
+                return result;
+            }
+        }
+        return conjunction;
+    }
+
+    private boolean testSampled(T t, int[] order, Statistics stats) {
+        for (int i : order) {
+            long start = System.nanoTime();
+            boolean result = clauses.get(i).test(t);
+            stats.sampledNanos[i] += System.nanoTime() - start;
+            stats.sampledCount[i]++;
+            stats.evaluations[i]++;
+            if (result) {
+                stats.passes[i]++;
+            }
+            if (result != conjunction) {
+                return result;
+            }
+        }
+        return conjunction;
+    }
+
+    /**
+     * 독립적인 절의 최적 순서: 평가 비용 / 결과를 결정할 확률 이 작은 절부터 평가한다.
+     * (AND는 false일 확률, OR는 true일 확률)
+     * 결과를 한 번도 결정하지 못한 절은 비용과 관계없이 맨 뒤로 보내고, 그들끼리는 싼 절부터 평가한다.
+     * 오래된 통계의 영향을 줄이기 위해 다시 정할 때마다 누적값을 절반으로 줄이되 MIN_HISTORY 아래로는 줄이지 않는다.
+     *
+     * @return 게시된 계획. 그 사이 다른 스레드가 먼저 게시했으면 그 계획을 사용한다.
+     */
+    private Plan replan(Statistics stats, Plan current) {
+        int n = clauses.size();
+        double[] costs = new double[n];
+        double[] passRates = new double[n];
+        double[] rank = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (stats.sampledCount[i] > 0) {
+                stats.meanCost[i] = (double) stats.sampledNanos[i] / stats.sampledCount[i];
+            }
+            // 새로 측정한 값이 없으면 마지막으로 측정한 평균을 사용한다.
+            // 한 번도 측정하지 않은 절은 0(가장 싼 것)으로 간주해서 앞으로 보내 통계를 모은다.
+            costs[i] = stats.meanCost[i];
+            passRates[i] = stats.evaluations[i] == 0 ? Double.NaN : (double) stats.passes[i] / stats.evaluations[i];
+            double p = stats.evaluations[i] == 0 ? 1 : conjunction ? 1 - passRates[i] : passRates[i];
+            rank[i] = p == 0 ? Double.POSITIVE_INFINITY : costs[i] / p;
+        }
+        Integer[] newOrder = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Arrays.sort(newOrder, Comparator.<Integer>comparingDouble(i -> rank[i]).thenComparingDouble(i -> costs[i]));
+        Plan next = new Plan(Arrays.stream(newOrder).mapToInt(Integer::intValue).toArray(), passRates, costs);
+
+        for (int i = 0; i < n; i++) {
+            if (stats.evaluations[i] >= 2 * MIN_HISTORY) {
+                stats.evaluations[i] >>= 1;
+                stats.passes[i] >>= 1;
+            }
+            if (stats.sampledCount[i] >= 2 * MIN_HISTORY) {
+                stats.sampledCount[i] >>= 1;
+                stats.sampledNanos[i] >>= 1;
+            }
+        }
+        return plan.compareAndSet(current, next) ? next : plan.get();
+    }
+
+    /**
+     * @return 현재 평가 순서대로 나열한 절과 계획을 세울 때 측정된 통과율, 평균 비용
+     */
+    public String plan() {
+        Plan current = plan.get();
+        List<String> steps = Arrays.stream(current.order)
+                .mapToObj(i -> String.format("#%d(pass=%.2f, cost=%.0fns)", i, current.passRates[i], current.costs[i]))
+                .collect(Collectors.toList());
+        return (conjunction ? "allOf" : "anyOf") + steps;
+    }
+
+    @Override
+    public String toString() {
+        return plan();
+    }
+
+    /**
+     * 게시된 평가 계획 (불변)
+     */
+    private static final class Plan {
+
+        private final int[] order; // 절의 인덱스를 평가할 순서대로 나열
+        private final double[] passRates; // 계획을 세울 때의 통과율 (보고용)
+        private final double[] costs; // 계획을 세울 때의 평균 평가 시간 (보고용)
+
+        Plan(int[] order, double[] passRates, double[] costs) {
+            this.order = order;
+            this.passRates = passRates;
+            this.costs = costs;
+        }
+
+    }
+
+    /**
+     * 한 스레드가 모은 절별 통계. 그 스레드만 접근하므로 동기화하지 않는다.
+     */
+    private static final class Statistics {
+
+        private long tests;
+        private final long[] evaluations; // 절마다 평가된 횟수
+        private final long[] passes; // 절마다 true를 반환한 횟수
+        private final long[] sampledCount; // 시간을 측정한 평가 횟수
+        private final long[] sampledNanos; // 측정한 평가 시간의 합
+        private final double[] meanCost; // 마지막으로 측정한 평균 평가 시간 (측정 전에는 0)
+
+        Statistics(int clauses) {
+            this.evaluations = new long[clauses];
+            this.passes = new long[clauses];
+            this.sampledCount = new long[clauses];
+            this.sampledNanos = new long[clauses];
+            this.meanCost = new double[clauses];
+        }
+
+    }
+
+}
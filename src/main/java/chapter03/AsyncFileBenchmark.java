@@ -0,0 +1,116 @@
+package chapter03;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 작은 파일 10,000개의 첫 줄을 읽는 시간 비교
+ * - blocking : ExecuteAround.processFile을 한 스레드에서 차례로 호출
+ * - blockingPool : 같은 블로킹 호출을 스레드 풀에 제출 (읽는 동안 풀 스레드가 기다림)
+ * - async : AsyncFileProcessor로 모든 파일을 동시에 요청하고 결과를 한 번에 기다림
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+public class AsyncFileBenchmark {
+
+    private static final int FILE_COUNT = 10_000;
+
+    @Param({"4", "16"})
+    private int threads;
+
+    private Path directory;
+    private List<Path> files;
+    private ExecutorService pool;
+    private AsyncFileProcessor async;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("async-file-benchmark");
+        files = new ArrayList<>(FILE_COUNT);
+        for (int i = 0; i < FILE_COUNT; i++) {
+            Path file = directory.resolve("file-" + i + ".txt");
+            Files.write(file, ("line " + i + "\nsecond line\nthird line\n").getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        pool = Executors.newFixedThreadPool(threads);
+        async = new AsyncFileProcessor(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        async.close();
+        pool.shutdown();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) paths::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<String> blocking() throws IOException {
+        List<String> result = new ArrayList<>(FILE_COUNT);
+        for (Path file : files) {
+            result.add(ExecuteAround.processFile(file, (BufferedReader b) -> b.readLine()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<String> blockingPool() throws InterruptedException, ExecutionException {
+        List<Future<String>> futures = new ArrayList<>(FILE_COUNT);
+        for (Path file : files) {
+            futures.add(pool.submit(() -> ExecuteAround.processFile(file, (BufferedReader b) -> b.readLine())));
+        }
+        List<String> result = new ArrayList<>(FILE_COUNT);
+        for (Future<String> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<String> async() {
+        List<CompletableFuture<String>> futures = new ArrayList<>(FILE_COUNT);
+        for (Path file : files) {
+            futures.add(async.processFile(file, (BufferedReader b) -> b.readLine()));
+        }
+        List<String> result = new ArrayList<>(FILE_COUNT);
+        for (CompletableFuture<String> future : futures) {
+            result.add(future.join());
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,212 @@
+package chapter03;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chapter03.ExecuteAround.BufferedReaderProcessor;
+
+/**
+ * ExecuteAround.processFile의 비동기 버전.
+ * AsynchronousFileChannel로 파일을 읽고 읽기가 끝나면 BufferedReaderProcessor를 실행한 결과로 CompletableFuture를 완료한다.
+ * 읽기는 모든 파일이 공유하는 스레드 풀에서 처리되므로 파일마다 스레드를 만들지 않고 많은 파일을 동시에 처리할 수 있다.
+ *
+ * 채널은 future가 어떻게 끝나든(성공, 실패, 취소) 항상 닫히고,
+ * 읽기에 사용하는 direct ByteBuffer는 진행 중인 읽기가 끝난 다음 풀에 반납된다.
+ */
+public class AsyncFileProcessor implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16; // 64KB
+    private static final int MAX_POOLED_BUFFERS = 256;
+
+    private final ExecutorService executor; // 채널의 읽기와 완료 처리를 실행하는 스레드 풀
+    private final Charset charset;
+    private final BufferPool buffers;
+
+    public AsyncFileProcessor(ExecutorService executor) {
+        this(executor, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE);
+    }
+
+    public AsyncFileProcessor(ExecutorService executor, Charset charset, int bufferSize) {
+        this.executor = executor;
+        this.charset = charset;
+        this.buffers = new BufferPool(bufferSize, MAX_POOLED_BUFFERS);
+    }
+
+    /**
+     * 파일 전체를 비동기로 읽은 다음 p를 실행한다. p는 읽기를 완료한 풀 스레드에서 실행된다.
+     * 파일을 열지 못하거나 읽기, 처리 중 예외가 발생하면 future는 그 예외로 완료된다.
+     */
+    public CompletableFuture<String> processFile(Path file, BufferedReaderProcessor p) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AsynchronousFileChannel channel;
+        long size;
+        try {
+            channel = AsynchronousFileChannel.open(file, Collections.singleton(StandardOpenOption.READ), executor);
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        // 어떤 방식으로 완료되든 채널을 닫는다. 진행 중인 읽기는 AsynchronousCloseException으로 끝난다.
+        result.whenComplete((r, e) -> closeQuietly(channel));
+        try {
+            size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large for processFile: " + file + " (" + size + " bytes)");
+            }
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        new ReadTask(channel, new byte[(int) size], p, result).start();
+        return result;
+    }
+
+    /**
+     * 현재 풀에 보관된 버퍼 수와 지금까지 새로 할당한 버퍼 수
+     */
+    public String bufferStats() {
+        return "pooled=" + buffers.pool.size() + ", allocated=" + buffers.allocated.get();
+    }
+
+    /**
+     * 실행기는 호출자가 만든 것이므로 닫지 않고 풀의 버퍼만 버린다.
+     */
+    @Override
+    public void close() {
+        buffers.pool.clear();
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 닫다가 발생한 예외는 이미 완료된 결과를 바꾸지 않는다.
+        }
+    }
+
+    /**
+     * 풀에서 빌린 버퍼 하나로 파일의 앞에서부터 차례로 읽어 bytes를 채운다.
+     * 버퍼는 마지막 읽기의 완료 핸들러에서만 반납하므로 채널이 읽는 중인 버퍼를 다른 파일이 사용하는 일은 없다.
+     */
+    private class ReadTask implements CompletionHandler<Integer, Void> {
+
+        private final AsynchronousFileChannel channel;
+        private final byte[] bytes;
+        private final BufferedReaderProcessor processor;
+        private final CompletableFuture<String> result;
+        private final ByteBuffer buffer;
+        private int position;
+
+        ReadTask(AsynchronousFileChannel channel, byte[] bytes, BufferedReaderProcessor processor,
+                CompletableFuture<String> result) {
+            this.channel = channel;
+            this.bytes = bytes;
+            this.processor = processor;
+            this.result = result;
+            this.buffer = buffers.acquire();
+        }
+
+        void start() {
+            if (bytes.length == 0) {
+                finish();
+            } else {
+                read();
+            }
+        }
+
+        private void read() {
+            try {
+                channel.read(buffer, position, null, this);
+            } catch (RuntimeException e) { // 채널이 이미 닫힌 경우 등
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer n, Void attachment) {
+            if (result.isDone()) { // 취소되었으면 더 읽지 않는다.
+                buffers.release(buffer);
+                return;
+            }
+            if (n < 0) { // 읽는 도중 파일이 줄어들었으면 읽은 데까지만 처리
+                finish();
+                return;
+            }
+            buffer.flip();
+            int length = Math.min(buffer.remaining(), bytes.length - position);
+            buffer.get(bytes, position, length);
+            buffer.clear();
+            position += length;
+            if (position < bytes.length) {
+                read();
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            buffers.release(buffer);
+            result.completeExceptionally(exc);
+        }
+
+        private void finish() {
+            buffers.release(buffer);
+            try (BufferedReader br = new BufferedReader(
+                    new InputStreamReader(new ByteArrayInputStream(bytes, 0, position), charset))) {
+                result.complete(processor.process(br));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+    }
+
+    /**
+     * direct ByteBuffer는 할당과 해제 비용이 크므로 다 쓴 버퍼를 보관했다가 다시 사용한다.
+     */
+    private static class BufferPool {
+
+        private final int bufferSize;
+        private final int maxPooled;
+        private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger allocated = new AtomicInteger();
+
+        BufferPool(int bufferSize, int maxPooled) {
+            this.bufferSize = bufferSize;
+            this.maxPooled = maxPooled;
+        }
+
+        ByteBuffer acquire() {
+            ByteBuffer buffer = pool.poll();
+            if (buffer == null) {
+                allocated.incrementAndGet();
+                buffer = ByteBuffer.allocateDirect(bufferSize);
+            }
+            return buffer;
+        }
+
+        void release(ByteBuffer buffer) {
+            buffer.clear();
+            if (pool.size() < maxPooled) { // size()는 근삿값이지만 풀이 무한히 커지는 것만 막으면 된다.
+                pool.offer(buffer);
+            }
+        }
+
+    }
+
+}
@@ -3,6 +3,12 @@ package chapter03;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 public class ExecuteAround {
 
@@ -20,6 +26,31 @@ public class ExecuteAround {
 
     String twoLines = processFile((BufferedReader b) -> b.readLine() + b.readLine());
     System.out.println(twoLines);
+
+    System.out.println("---");
+
+    // 줄을 스트림으로 받으면 파일 크기와 상관없이 한 줄씩 처리할 수 있다.
+    long lineCount = processLines(lines -> lines.count());
+    System.out.println(lineCount);
+
+    String longLines = processLines(lines -> lines.filter(l -> l.length() > 10).collect(Collectors.joining("\n")));
+    System.out.println(longLines);
+
+    // 큰 파일은 메모리 매핑한 다음 줄바꿈 위치에서 나눠 병렬로 처리한다.
+    long words = new StreamingFileProcessor()
+        .processParallel(Paths.get(FILE), lines -> lines.mapToLong(l -> l.split("\\s+").length).sum());
+    System.out.println(words);
+
+    System.out.println("---");
+
+    // 비동기로 읽으면 호출한 스레드는 파일을 읽는 동안 기다리지 않는다.
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try (AsyncFileProcessor async = new AsyncFileProcessor(pool)) {
+      CompletableFuture<String> firstLine = async.processFile(Paths.get(FILE), (BufferedReader b) -> b.readLine());
+      System.out.println(firstLine.join());
+    } finally {
+      pool.shutdown();
+    }
   }
 
   public static String processFileLimited() throws IOException {
@@ -34,6 +65,16 @@ public class ExecuteAround {
     }
   }
 
+  public static String processFile(Path file, BufferedReaderProcessor p) throws IOException {
+    try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+      return p.process(br);
+    }
+  }
+
+  public static <R> R processLines(StreamingFileProcessor.LinesProcessor<R> p) throws IOException {
+    return new StreamingFileProcessor().process(Paths.get(FILE), p);
+  }
+
   public interface BufferedReaderProcessor {
 
     String process(BufferedReader b) throws IOException;
@@ -0,0 +1,282 @@
+package chapter03;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Comparator.comparing(...).reversed().thenComparing(...)처럼 정렬 키를 기술하지만,
+ * 비교할 때마다 키를 추출하는 대신 요소마다 키를 한 번만 추출해서 int 배열에 저장한 다음 정렬한다. (Schwartzian transform)
+ *
+ * 가장 덜 중요한 키부터 (키 << 32 | 현재 위치)를 long에 담아 정렬하는 안정 정렬을 키마다 한 번씩 수행한다.
+ * 위치가 하위 비트에 있으므로 키가 같은 요소는 이전 순서를 유지한다.
+ * 작은 입력은 기수 정렬(radix sort)로, 큰 입력은 Arrays.parallelSort로 정렬한다.
+ *
+ * KeySorter는 불변이므로 Comparator처럼 상수로 만들어 두고 여러 번 사용할 수 있다.
+ */
+public class KeySorter<T> {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // 이보다 많은 요소는 Arrays.parallelSort로 정렬
+
+    private final List<SortKey<T>> keys; // 중요한 키부터 순서대로
+
+    private KeySorter(List<SortKey<T>> keys) {
+        this.keys = keys;
+    }
+
+    public static <T> KeySorter<T> comparingInt(ToIntFunction<? super T> keyExtractor) {
+        return new KeySorter<T>(Collections.emptyList()).thenComparingInt(keyExtractor);
+    }
+
+    public static <T, U extends Comparable<? super U>> KeySorter<T> comparing(Function<? super T, ? extends U> keyExtractor) {
+        return new KeySorter<T>(Collections.emptyList()).thenComparing(keyExtractor);
+    }
+
+    public KeySorter<T> thenComparingInt(ToIntFunction<? super T> keyExtractor) {
+        return with(new IntKey<>(keyExtractor, false));
+    }
+
+    public <U extends Comparable<? super U>> KeySorter<T> thenComparing(Function<? super T, ? extends U> keyExtractor) {
+        return with(new ComparableKey<>(keyExtractor, false));
+    }
+
+    /**
+     * Comparator.reversed()처럼 지금까지 기술한 정렬 순서 전체를 뒤집는다.
+     */
+    public KeySorter<T> reversed() {
+        List<SortKey<T>> reversed = new ArrayList<>(keys.size());
+        for (SortKey<T> key : keys) {
+            reversed.add(key.reversed());
+        }
+        return new KeySorter<>(reversed);
+    }
+
+    /**
+     * 같은 순서로 비교하는 Comparator (키를 캐시하지 않음)
+     */
+    public Comparator<T> comparator() {
+        Comparator<T> result = (a, b) -> 0;
+        for (SortKey<T> key : keys) {
+            result = result.thenComparing(key.comparator());
+        }
+        return result;
+    }
+
+    private KeySorter<T> with(SortKey<T> key) {
+        List<SortKey<T>> newKeys = new ArrayList<>(keys);
+        newKeys.add(key);
+        return new KeySorter<>(newKeys);
+    }
+
+    /**
+     * List.sort처럼 리스트를 제자리에서 안정 정렬한다.
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(List<T> list) {
+        Object[] items = list.toArray();
+        int[] order = order((T[]) items);
+        ListIterator<T> it = list.listIterator();
+        for (int index : order) {
+            it.next();
+            it.set((T) items[index]);
+        }
+    }
+
+    /**
+     * 배열을 제자리에서 안정 정렬한다.
+     */
+    public void sort(T[] items) {
+        int[] order = order(items);
+        Object[] copy = items.clone();
+        for (int i = 0; i < order.length; i++) {
+            @SuppressWarnings("unchecked")
+            T item = (T) copy[order[i]];
+            items[i] = item;
+        }
+    }
+
+    /**
+     * @return 정렬했을 때 i번째에 오는 요소의 원래 인덱스
+     */
+    public int[] order(T[] items) {
+        int n = items.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+
+        long[] packed = new long[n];
+        long[] scratch = n < PARALLEL_THRESHOLD ? new long[n] : null;
+        long signFlip = scratch == null ? Long.MIN_VALUE : 0; // Arrays.sort는 부호 있는 순서로 비교하므로 부호 비트를 뒤집는다.
+        for (int k = keys.size() - 1; k >= 0; k--) { // 가장 덜 중요한 키부터 안정 정렬
+            int[] column = keys.get(k).extract(items); // 원래 인덱스의 키 (부호 없는 정수로 비교)
+            for (int i = 0; i < n; i++) {
+                packed[i] = ((column[order[i]] & 0xFFFFFFFFL) << 32 | i) ^ signFlip;
+            }
+            if (scratch == null) {
+                Arrays.parallelSort(packed); // 위치가 하위 비트에 있어 모든 값이 다르므로 결과가 안정적이다.
+            } else {
+                radixSort(packed, scratch);
+            }
+            int[] next = new int[n];
+            for (int i = 0; i < n; i++) {
+                next[i] = order[(int) packed[i]];
+            }
+            order = next;
+        }
+        return order;
+    }
+
+    /**
+     * 상위 32비트(키)를 8비트씩 LSD 기수 정렬한다. 각 단계는 안정적이므로 같은 키는 위치 순서를 유지한다.
+     * 모든 요소의 해당 바이트가 같은 단계(예: 작은 enum 순위의 상위 바이트)는 건너뛴다.
+     */
+    private static void radixSort(long[] a, long[] scratch) {
+        int n = a.length;
+        long[] src = a;
+        long[] dst = scratch;
+        int[] counts = new int[257];
+        for (int shift = 32; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) (src[i] >>> shift & 0xFF) + 1]++;
+            }
+            if (n == 0 || counts[(int) (src[0] >>> shift & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < n; i++) {
+                dst[counts[(int) (src[i] >>> shift & 0xFF)]++] = src[i];
+            }
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    private interface SortKey<T> {
+
+        /**
+         * @return 요소마다 한 번씩 추출한 키. 부호 없는 정수로 비교했을 때 원하는 순서가 되도록 변환한 값
+         */
+        int[] extract(T[] items);
+
+        SortKey<T> reversed();
+
+        Comparator<T> comparator();
+
+    }
+
+    private static class IntKey<T> implements SortKey<T> {
+
+        private final ToIntFunction<? super T> keyExtractor;
+        private final boolean descending;
+
+        IntKey(ToIntFunction<? super T> keyExtractor, boolean descending) {
+            this.keyExtractor = keyExtractor;
+            this.descending = descending;
+        }
+
+        @Override
+        public int[] extract(T[] items) {
+            int[] column = new int[items.length];
+            int flip = descending ? -1 : 0; // 내림차순이면 모든 비트를 뒤집는다.
+            for (int i = 0; i < items.length; i++) {
+                column[i] = (keyExtractor.applyAsInt(items[i]) ^ Integer.MIN_VALUE) ^ flip; // 부호 비트를 뒤집으면 부호 없는 순서가 된다.
+            }
+            return column;
+        }
+
+        @Override
+        public SortKey<T> reversed() {
+            return new IntKey<>(keyExtractor, !descending);
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            Comparator<T> c = Comparator.comparingInt(keyExtractor);
+            return descending ? c.reversed() : c;
+        }
+
+    }
+
+    /**
+     * Comparable 키는 한 번 추출한 다음 순위(rank)로 바꿔 int 키처럼 정렬한다.
+     * enum은 compareTo가 ordinal 순서이므로 ordinal을 그대로 순위로 사용한다.
+     */
+    private static class ComparableKey<T, U extends Comparable<? super U>> implements SortKey<T> {
+
+        private final Function<? super T, ? extends U> keyExtractor;
+        private final boolean descending;
+
+        ComparableKey(Function<? super T, ? extends U> keyExtractor, boolean descending) {
+            this.keyExtractor = keyExtractor;
+            this.descending = descending;
+        }
+
+        @Override
+        public int[] extract(T[] items) {
+            int n = items.length;
+            Object[] values = new Object[n];
+            boolean enums = true;
+            for (int i = 0; i < n; i++) {
+                values[i] = keyExtractor.apply(items[i]);
+                enums &= values[i] instanceof Enum;
+            }
+
+            int[] column = new int[n];
+            if (enums) {
+                for (int i = 0; i < n; i++) {
+                    column[i] = ((Enum<?>) values[i]).ordinal();
+                }
+            } else {
+                // 정렬한 서로 다른 키 배열에서의 위치가 순위다.
+                Object[] distinct = values.clone();
+                Arrays.sort(distinct);
+                int d = 0;
+                for (int i = 0; i < n; i++) {
+                    if (d == 0 || compare(distinct[d - 1], distinct[i]) != 0) {
+                        distinct[d++] = distinct[i];
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    column[i] = Arrays.binarySearch(distinct, 0, d, values[i]);
+                }
+            }
+            if (descending) {
+                for (int i = 0; i < n; i++) {
+                    column[i] = ~column[i];
+                }
+            }
+            return column;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <U extends Comparable<? super U>> int compare(Object a, Object b) {
+            return ((U) a).compareTo((U) b);
+        }
+
+        @Override
+        public SortKey<T> reversed() {
+            return new ComparableKey<>(keyExtractor, !descending);
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            Comparator<T> c = Comparator.comparing(keyExtractor);
+            return descending ? c.reversed() : c;
+        }
+
+    }
+
+}
@@ -1,8 +1,10 @@
 package chapter03;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 public class Main {
 
@@ -48,6 +50,7 @@ public class Main {
     }
 
     public static <T> List<T> filter(List<T> list, Predicate<T> p) {
+        // map과 달리 결과 크기를 알 수 없으므로 미리 할당하지 않는다. (list.size()로 할당하면 조건이 까다로울수록 메모리를 낭비)
         List<T> result = new ArrayList<>();
         for (T e : list) {
             if (p.test(e)) {
@@ -64,12 +67,142 @@ public class Main {
     }
 
     public static <T, R> List<R> map(List<T> list, Function<T, R> f) {
-        List<R> result = new ArrayList<>();
+        List<R> result = new ArrayList<>(list.size()); // 결과 크기를 알고 있으므로 미리 할당
         for (T t : list) {
             result.add(f.apply(t));
         }
         return result;
     }
+
+    // 병렬 버전 : 리스트를 청크로 나눠 지정한 ForkJoinPool에서 처리하고, 결과는 원래 순서를 유지한다.
+
+    /**
+     * @return 원래 순서대로 조건을 만족하는 요소를 담은 ArrayList (순차 버전과 같이 변경할 수 있음)
+     */
+    public static <T> List<T> filter(List<T> list, Predicate<T> p, ForkJoinPool pool) {
+        Object[] elements = list.toArray(); // LinkedList처럼 인덱스 접근이 느린 리스트도 배열로 한 번에 복사
+        int chunks = chunkCount(elements.length, pool);
+        // 조건을 만족한 요소의 인덱스. 청크마다 따로 할당하지 않고 각 청크가 자신의 구간 [start, end)의 앞부분에 기록한다.
+        int[] indices = new int[elements.length];
+        int[] starts = new int[chunks];
+        int[] counts = new int[chunks];
+        runChunks(elements.length, chunks, pool, (chunk, start, end) -> {
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                @SuppressWarnings("unchecked")
+                T e = (T) elements[i];
+                if (p.test(e)) {
+                    indices[start + count++] = i;
+                }
+            }
+            starts[chunk] = start;
+            counts[chunk] = count;
+        });
+
+        // 청크별 개수의 누적합으로 결과 배열에서 각 청크가 시작할 위치를 정한다.
+        int[] offsets = new int[counts.length];
+        int total = 0;
+        for (int chunk = 0; chunk < counts.length; chunk++) {
+            offsets[chunk] = total;
+            total += counts[chunk];
+        }
+        Object[] result = new Object[total];
+        runChunks(chunks, chunks, pool, (chunk, start, end) -> {
+            for (int i = 0; i < counts[chunk]; i++) {
+                result[offsets[chunk] + i] = elements[indices[starts[chunk] + i]];
+            }
+        });
+        return toArrayList(result);
+    }
+
+    /**
+     * @return 원래 순서대로 변환한 요소를 담은 ArrayList (순차 버전과 같이 변경할 수 있음)
+     */
+    public static <T, R> List<R> map(List<T> list, Function<T, R> f, ForkJoinPool pool) {
+        Object[] elements = list.toArray();
+        Object[] result = new Object[elements.length];
+        runChunks(elements.length, chunkCount(elements.length, pool), pool, (chunk, start, end) -> {
+            for (int i = start; i < end; i++) {
+                @SuppressWarnings("unchecked")
+                T e = (T) elements[i];
+                result[i] = f.apply(e);
+            }
+        });
+        return toArrayList(result);
+    }
+
+    /**
+     * 청크 안에서는 순서대로 소비하지만 청크끼리는 동시에 실행되므로 Consumer는 스레드 안전해야 한다.
+     */
+    public static <T> void forEach(List<T> list, Consumer<T> c, ForkJoinPool pool) {
+        Object[] elements = list.toArray();
+        runChunks(elements.length, chunkCount(elements.length, pool), pool, (chunk, start, end) -> {
+            for (int i = start; i < end; i++) {
+                @SuppressWarnings("unchecked")
+                T e = (T) elements[i];
+                c.accept(e);
+            }
+        });
+    }
+
+    // 박싱 없이 IntPredicate로 필터링
+    public static int[] filter(int[] array, IntPredicate p, ForkJoinPool pool) {
+        int chunks = chunkCount(array.length, pool);
+        int[] values = new int[array.length]; // 각 청크가 자신의 구간 앞부분에 조건을 만족한 값을 모은다.
+        int[] starts = new int[chunks];
+        int[] counts = new int[chunks];
+        runChunks(array.length, chunks, pool, (chunk, start, end) -> {
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (p.test(array[i])) {
+                    values[start + count++] = array[i];
+                }
+            }
+            starts[chunk] = start;
+            counts[chunk] = count;
+        });
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        int[] result = new int[total];
+        int offset = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            System.arraycopy(values, starts[chunk], result, offset, counts[chunk]);
+            offset += counts[chunk];
+        }
+        return result;
+    }
+
+    // 워커마다 여러 청크를 처리하도록 나눠서 청크 사이의 부하 불균형을 줄인다.
+    private static int chunkCount(int size, ForkJoinPool pool) {
+        return Math.max(1, Math.min(size, pool.getParallelism() * 4));
+    }
+
+    // [0, size)를 chunks개의 연속된 구간으로 나눠 pool에서 병렬로 실행한다.
+    private static void runChunks(int size, int chunks, ForkJoinPool pool, ChunkTask task) {
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk ->
+                task.run(chunk, (int) ((long) size * chunk / chunks), (int) ((long) size * (chunk + 1) / chunks))
+        )).join();
+    }
+
+    // 결과 배열의 요소는 모두 T이므로 요소 단위로 캐스팅해서 크기를 미리 정한 ArrayList에 담는다.
+    private static <T> List<T> toArrayList(Object[] elements) {
+        List<T> list = new ArrayList<>(elements.length);
+        for (Object element : elements) {
+            @SuppressWarnings("unchecked")
+            T t = (T) element;
+            list.add(t);
+        }
+        return list;
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int start, int end);
+    }
+
     public static Fruit getFruit(String fruit, Integer weight) {
         return map.get(fruit.toLowerCase()).apply(weight);
     }
@@ -0,0 +1,165 @@
+package chapter03;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 매핑한 파일 영역을 줄 단위로 탐색하는 Spliterator.
+ * 분할할 때는 바이트 오프셋의 중간에서 다음 줄바꿈까지 이동한 위치에서 나누므로 줄이 두 청크에 걸치지 않는다.
+ * BufferedReader.readLine처럼 '\n', '\r', "\r\n"을 모두 줄바꿈으로 처리한다.
+ * 줄바꿈을 바이트 단위로 찾으므로 UTF-8, ISO-8859-1처럼 ASCII와 호환되는 문자셋에서만 사용할 수 있다.
+ * 잘못된 바이트는 생성자로 전달받은 CodingErrorAction으로 처리하고, REPORT면 UncheckedIOException으로 감싸서 던진다.
+ */
+class MappedLineSpliterator implements Spliterator<String> {
+
+    static final int MIN_SPLIT_SIZE = 1 << 20; // 1MB 이하의 영역은 더 이상 분할하지 않는다.
+
+    private static final int MAX_WINDOW_SIZE = 1 << 30; // 한 번에 매핑할 최대 크기 (한 줄은 이보다 짧아야 한다.)
+    private static final int SCAN_WINDOW_SIZE = 1 << 16; // 분할 위치에서 줄바꿈을 찾을 최대 범위
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final CodingErrorAction errorAction;
+    private final CharsetDecoder decoder; // 스레드 안전하지 않으므로 Spliterator마다 만든다.
+    private long position; // 다음 줄이 시작하는 파일 오프셋
+    private final long end;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedLineSpliterator(FileChannel channel, Charset charset, CodingErrorAction errorAction, long start, long end) {
+        this.channel = channel;
+        this.charset = charset;
+        this.errorAction = errorAction;
+        this.decoder = charset.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (position >= end) {
+            return false;
+        }
+        action.accept(nextLine());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        while (position < end) {
+            action.accept(nextLine());
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long remaining = end - position;
+        if (remaining < MIN_SPLIT_SIZE) {
+            return null;
+        }
+
+        long mid = position + remaining / 2;
+        MappedByteBuffer scan = map(mid, (int) Math.min(SCAN_WINDOW_SIZE, end - mid));
+        for (int i = 0; i < scan.limit(); i++) {
+            byte b = scan.get(i);
+            if (b == '\r' && i + 1 == scan.limit()) {
+                break; // \r\n의 사이에서 나누지 않도록 다음 바이트를 확인할 수 없으면 분할하지 않는다.
+            }
+            if (b == '\n' || b == '\r') {
+                int next = b == '\r' && scan.get(i + 1) == '\n' ? i + 2 : i + 1;
+                long splitPos = mid + next; // 줄바꿈 다음 바이트부터 새 청크가 시작된다.
+                if (splitPos >= end) {
+                    return null;
+                }
+                Spliterator<String> prefix = new MappedLineSpliterator(channel, charset, errorAction, position, splitPos);
+                position = splitPos;
+                window = null;
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position; // 바이트 수 (줄 수의 상한)
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED + NONNULL + IMMUTABLE;
+    }
+
+    private String nextLine() {
+        if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+            remap(position);
+        }
+        int lineStart = (int) (position - windowStart);
+        int lineBreak = indexOfLineBreak(lineStart);
+        if (continuesPastWindow(lineBreak)) { // 줄이 매핑한 영역 밖으로 이어지면 줄의 시작부터 다시 매핑
+            remap(position);
+            lineStart = 0;
+            lineBreak = indexOfLineBreak(lineStart);
+            if (continuesPastWindow(lineBreak)) {
+                throw new IllegalStateException("Line longer than " + MAX_WINDOW_SIZE + " bytes at offset " + position);
+            }
+        }
+
+        int lineEnd = lineBreak < 0 ? window.limit() : lineBreak;
+        int next = lineBreak < 0 ? lineEnd : lineBreak + 1;
+        if (lineBreak >= 0 && window.get(lineBreak) == '\r' && next < window.limit() && window.get(next) == '\n') {
+            next++; // \r\n은 줄바꿈 하나
+        }
+        position = windowStart + next;
+
+        ByteBuffer line = window.duplicate();
+        line.limit(lineEnd).position(lineStart);
+        try {
+            return decoder.decode(line).toString();
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int indexOfLineBreak(int from) {
+        for (int i = from; i < window.limit(); i++) {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 영역 끝까지 줄바꿈이 없거나 마지막 바이트가 \r이라서 뒤에 \n이 이어지는지 알 수 없으면 true
+    private boolean continuesPastWindow(int lineBreak) {
+        if (windowStart + window.limit() >= end) {
+            return false;
+        }
+        return lineBreak < 0 || (lineBreak + 1 == window.limit() && window.get(lineBreak) == '\r');
+    }
+
+    private void remap(long offset) {
+        windowStart = offset;
+        window = map(offset, (int) Math.min(MAX_WINDOW_SIZE, end - offset));
+    }
+
+    private MappedByteBuffer map(long offset, int size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
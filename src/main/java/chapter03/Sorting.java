@@ -54,6 +54,12 @@ public class Sorting {
     // [Apple{color=RED, weight=10}, Apple{color=RED, weight=20}, Apple{color=GREEN, weight=155}]
     inventory.sort(comparing(Apple::getWeight).reversed());
     System.out.println(inventory);
+
+    // 5
+    // 키를 요소마다 한 번만 추출해서 정렬 (큰 재고에서 비교마다 getter를 호출하지 않음)
+    // [Apple{color=GREEN, weight=155}, Apple{color=RED, weight=20}, Apple{color=RED, weight=10}]
+    KeySorter.comparing(Apple::getColor).thenComparingInt(Apple::getWeight).reversed().sort(inventory);
+    System.out.println(inventory);
   }
 
   static class AppleComparator implements Comparator<Apple> {
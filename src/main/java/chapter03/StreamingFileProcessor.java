@@ -0,0 +1,130 @@
+package chapter03;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ExecuteAround.processFile처럼 파일을 열고 닫는 일은 이 클래스가 맡고, 파일의 줄을 처리하는 동작만 전달받는다.
+ * 한 번에 String 하나를 반환하는 대신 줄을 지연 스트림으로 제공하므로 수 GB 파일도 한 줄씩 처리할 수 있다.
+ * 스트림은 process가 반환되면 닫히므로 LinesProcessor 밖으로 내보내면 안 된다.
+ * BufferedReader로 읽든 메모리 매핑해서 읽든 같은 줄을 반환한다.
+ * - 줄바꿈 : BufferedReader.readLine처럼 '\n', '\r', "\r\n"
+ * - 잘못된 바이트 : codingErrorAction으로 정한 정책 (기본은 REPORT : MalformedInputException을 던진다.)
+ */
+public class StreamingFileProcessor {
+
+    private Charset charset = StandardCharsets.UTF_8;
+    private int bufferSize = 1 << 16;
+    private boolean memoryMapped = false;
+    private CodingErrorAction codingErrorAction = CodingErrorAction.REPORT;
+
+    public StreamingFileProcessor charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    public StreamingFileProcessor bufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 잘못되었거나 매핑할 수 없는 바이트를 만났을 때의 처리 방식
+     * (REPORT : 예외, REPLACE : 문자셋의 대체 문자(UTF-8은 U+FFFD), IGNORE : 건너뜀)
+     */
+    public StreamingFileProcessor codingErrorAction(CodingErrorAction codingErrorAction) {
+        this.codingErrorAction = codingErrorAction;
+        return this;
+    }
+
+    /**
+     * true면 BufferedReader 대신 파일을 메모리 매핑해서 읽는다. (ASCII 호환 문자셋만 가능)
+     */
+    public StreamingFileProcessor memoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+        return this;
+    }
+
+    /**
+     * 파일의 줄을 순차 스트림으로 처리한다. 처리가 성공하든 실패하든 파일은 항상 닫힌다.
+     */
+    public <R> R process(Path file, LinesProcessor<R> p) throws IOException {
+        if (memoryMapped) {
+            return processMapped(file, p, false);
+        }
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), newDecoder()), bufferSize);
+             Stream<String> lines = br.lines()) {
+            return unwrap(() -> p.process(lines));
+        }
+    }
+
+    /**
+     * 파일을 메모리 매핑하고 줄바꿈 위치에서 청크를 나눠 병렬 스트림으로 처리한다.
+     * 청크의 결과를 합치는 순서는 스트림 연산이 정하므로 순서가 중요하면 forEachOrdered나 collect를 사용한다.
+     */
+    public <R> R processParallel(Path file, LinesProcessor<R> p) throws IOException {
+        return processMapped(file, p, true);
+    }
+
+    private <R> R processMapped(Path file, LinesProcessor<R> p, boolean parallel) throws IOException {
+        if (!isAsciiLineBreakCompatible(charset)) {
+            throw new IllegalArgumentException("Memory mapping requires an ASCII compatible charset: " + charset);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Stream<String> lines = StreamSupport.stream(
+                     new MappedLineSpliterator(channel, charset, codingErrorAction, 0, channel.size()), parallel)) {
+            return unwrap(() -> p.process(lines));
+        }
+    }
+
+    private CharsetDecoder newDecoder() {
+        return charset.newDecoder().onMalformedInput(codingErrorAction).onUnmappableCharacter(codingErrorAction);
+    }
+
+    // MappedLineSpliterator는 바이트 0x0A와 0x0D에서 줄을 나누므로 두 문자가 ASCII와 같은 한 바이트여야 한다.
+    // (UTF-16은 두 바이트, EBCDIC(IBM1047 등)은 '\n'이 0x25라서 거부된다.)
+    private static boolean isAsciiLineBreakCompatible(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        byte[] lineBreak = "\r\n".getBytes(charset);
+        return lineBreak.length == 2 && lineBreak[0] == '\r' && lineBreak[1] == '\n';
+    }
+
+    // 스트림을 탐색하다 발생한 UncheckedIOException은 원래의 IOException으로 되돌린다.
+    private static <R> R unwrap(IOAction<R> action) throws IOException {
+        try {
+            return action.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface LinesProcessor<R> {
+
+        R process(Stream<String> lines) throws IOException;
+
+    }
+
+    @FunctionalInterface
+    private interface IOAction<R> {
+
+        R run() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package chapter06;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+import static java.util.stream.Collector.Characteristics.UNORDERED;
+
+/**
+ * 정확한 집계 대신 고정된 메모리만 사용하는 근사 컬렉터.
+ * groupingBy(..., counting())처럼 키마다 항목을 만들지 않으므로 키가 매우 많은 스트림에서도 힙이 늘어나지 않는다.
+ * 각 스케치는 병합할 수 있으므로 병렬 스트림의 combiner에서 부분 결과를 합친다.
+ */
+public class ApproximateCollectors {
+
+    private ApproximateCollectors() {
+    }
+
+    /**
+     * 서로 다른 키의 개수 (HyperLogLog, 상대 오차 약 0.8%)
+     */
+    public static <T> Collector<T, ?, Long> approximateDistinctCount(Function<? super T, ?> keyExtractor) {
+        return approximateDistinctCount(keyExtractor, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public static <T> Collector<T, ?, Long> approximateDistinctCount(Function<? super T, ?> keyExtractor, int precision) {
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                (sketch, t) -> sketch.add(keyExtractor.apply(t)),
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                UNORDERED);
+    }
+
+    /**
+     * 값의 분포를 요약한 KLL 스케치. quantile(q)로 중앙값, p99 등을 조회한다.
+     */
+    public static <T> Collector<T, ?, KllSketch> quantiles(ToDoubleFunction<? super T> mapper) {
+        return quantiles(mapper, KllSketch.DEFAULT_K);
+    }
+
+    public static <T> Collector<T, ?, KllSketch> quantiles(ToDoubleFunction<? super T> mapper, int k) {
+        return Collector.of(
+                () -> new KllSketch(k),
+                (sketch, t) -> sketch.add(mapper.applyAsDouble(t)),
+                KllSketch::merge,
+                UNORDERED);
+    }
+
+    /**
+     * 가장 자주 나오는 k개의 키와 추정 개수 (Space-Saving, 카운터 max(10k, 64)개)
+     */
+    public static <T, K> Collector<T, ?, List<SpaceSaving.Counter<K>>> heavyHitters(
+            Function<? super T, ? extends K> classifier, int k) {
+        return heavyHitters(classifier, k, Math.max(10 * k, 64));
+    }
+
+    /**
+     * @param capacity 유지할 카운터 수. 개수가 전체의 1 / capacity보다 많은 키는 반드시 결과에 포함될 수 있다.
+     */
+    public static <T, K> Collector<T, ?, List<SpaceSaving.Counter<K>>> heavyHitters(
+            Function<? super T, ? extends K> classifier, int k, int capacity) {
+        return Collector.of(
+                () -> new SpaceSaving<K>(capacity),
+                (sketch, t) -> sketch.add(classifier.apply(t)),
+                SpaceSaving::merge,
+                sketch -> sketch.topK(k),
+                UNORDERED);
+    }
+
+}
@@ -0,0 +1,84 @@
+package chapter06;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import static java.util.stream.Collector.Characteristics.CONCURRENT;
+import static java.util.stream.Collector.Characteristics.UNORDERED;
+
+/**
+ * 실제로 CONCURRENT한 리스트 컬렉터. 병렬 스트림의 모든 스레드가 누적자 하나를 공유하지만,
+ * 누적자는 스레드마다 자기 ArrayList에만 추가하므로 잠금이나 CAS 경쟁이 없다.
+ * 스레드별 리스트는 ThreadLocal이 아니라 누적자가 소유한 맵에 등록하므로 워커 스레드에 남지 않는다.
+ * 완료할 때 스레드별 리스트를 전체 크기의 리스트 하나로 합치고 맵을 비운다.
+ * UNORDERED이므로 결과의 순서는 스트림의 순서와 다를 수 있다.
+ */
+public class ConcurrentListCollector<T> implements Collector<T, ConcurrentListCollector.Buffers<T>, List<T>> {
+
+    @Override
+    public Supplier<Buffers<T>> supplier() {
+        return Buffers::new;
+    }
+
+    @Override
+    public BiConsumer<Buffers<T>, T> accumulator() {
+        return Buffers::add;
+    }
+
+    @Override
+    public BinaryOperator<Buffers<T>> combiner() {
+        return (left, right) -> { // CONCURRENT로 실행되지 않는 경우(순차 스트림 등)에만 사용된다.
+            right.lists.forEach((thread, list) -> left.lists.merge(thread, list, (l, r) -> {
+                l.addAll(r);
+                return l;
+            }));
+            return left;
+        };
+    }
+
+    @Override
+    public Function<Buffers<T>, List<T>> finisher() {
+        return Buffers::toList;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.unmodifiableSet(EnumSet.of(CONCURRENT, UNORDERED));
+    }
+
+    static class Buffers<T> {
+
+        // 스레드별 리스트. 각 리스트는 키인 스레드만 수정한다.
+        private final ConcurrentMap<Thread, List<T>> lists = new ConcurrentHashMap<>();
+
+        void add(T t) {
+            Thread current = Thread.currentThread();
+            List<T> list = lists.get(current); // 대부분은 잠금 없는 조회로 끝난다.
+            if (list == null) {
+                list = lists.computeIfAbsent(current, thread -> new ArrayList<>());
+            }
+            list.add(t);
+        }
+
+        List<T> toList() {
+            int size = 0;
+            for (List<T> list : lists.values()) {
+                size += list.size();
+            }
+            List<T> result = new ArrayList<>(size);
+            for (List<T> list : lists.values()) {
+                result.addAll(list);
+            }
+            lists.clear(); // 스레드 참조와 부분 리스트를 바로 놓아준다.
+            return result;
+        }
+
+    }
+
+}
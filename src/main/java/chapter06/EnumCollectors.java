@@ -0,0 +1,133 @@
+package chapter06;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * 키가 enum인 groupingBy를 대신하는 컬렉터.
+ * HashMap과 Long/Integer 누적자 대신 ordinal을 인덱스로 하는 long[], Object[]에 누적하므로
+ * 요소마다 해시 계산, 박싱, 맵 조회가 없다. 박싱은 완료 단계에서 키 하나당 한 번만 일어난다.
+ * groupingBy처럼 요소가 하나도 없는 키는 결과 맵에 포함하지 않는다.
+ */
+public class EnumCollectors {
+
+    private EnumCollectors() {
+    }
+
+    /**
+     * groupingBy(classifier, counting())과 같은 결과를 EnumMap으로 반환한다.
+     */
+    public static <T, K extends Enum<K>> Collector<T, ?, Map<K, Long>> countingBy(
+            Class<K> keyType, Function<? super T, K> classifier) {
+        K[] keys = keyType.getEnumConstants();
+        return Collector.of(
+                () -> new long[keys.length],
+                (counts, t) -> counts[classifier.apply(t).ordinal()]++,
+                EnumCollectors::addAll,
+                counts -> {
+                    Map<K, Long> result = new EnumMap<>(keyType);
+                    for (K key : keys) {
+                        if (counts[key.ordinal()] > 0) {
+                            result.put(key, counts[key.ordinal()]);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * groupingBy(classifier, summingLong(mapper))와 같은 결과를 EnumMap으로 반환한다.
+     * 누적자는 long[2 * 키 개수]로, 앞쪽 절반에 요소 수, 뒤쪽 절반에 합계를 저장한다.
+     */
+    public static <T, K extends Enum<K>> Collector<T, ?, Map<K, Long>> summingBy(
+            Class<K> keyType, Function<? super T, K> classifier, ToLongFunction<? super T> mapper) {
+        K[] keys = keyType.getEnumConstants();
+        int n = keys.length;
+        return Collector.of(
+                () -> new long[2 * n],
+                (acc, t) -> {
+                    int ordinal = classifier.apply(t).ordinal();
+                    acc[ordinal]++;
+                    acc[n + ordinal] += mapper.applyAsLong(t);
+                },
+                EnumCollectors::addAll,
+                acc -> {
+                    Map<K, Long> result = new EnumMap<>(keyType);
+                    for (K key : keys) {
+                        if (acc[key.ordinal()] > 0) {
+                            result.put(key, acc[n + key.ordinal()]);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * ordinal(0 ~ size-1)마다 요소 수를 센 배열을 반환한다. 결과도 기본형 배열이므로 박싱이 전혀 없다.
+     */
+    public static <T> Collector<T, ?, long[]> countingByOrdinal(int size, ToIntFunction<? super T> ordinal) {
+        return Collector.of(
+                () -> new long[size],
+                (counts, t) -> counts[ordinal.applyAsInt(t)]++,
+                EnumCollectors::addAll);
+    }
+
+    /**
+     * groupingBy(classifier, downstream)과 같은 결과를 EnumMap으로 반환한다.
+     * 하위 컬렉터의 누적자를 ordinal로 인덱싱한 배열에 저장하므로 요소마다 맵을 조회하지 않는다.
+     */
+    public static <T, K extends Enum<K>, A, D> Collector<T, ?, Map<K, D>> groupingBy(
+            Class<K> keyType, Function<? super T, K> classifier, Collector<? super T, A, D> downstream) {
+        K[] keys = keyType.getEnumConstants();
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        return Collector.<T, Object[], Map<K, D>>of(
+                () -> new Object[keys.length],
+                (containers, t) -> {
+                    int ordinal = classifier.apply(t).ordinal();
+                    if (containers[ordinal] == null) {
+                        containers[ordinal] = downstreamSupplier.get();
+                    }
+                    @SuppressWarnings("unchecked")
+                    A container = (A) containers[ordinal];
+                    downstreamAccumulator.accept(container, t);
+                },
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        if (left[i] == null) {
+                            left[i] = right[i];
+                        } else if (right[i] != null) {
+                            @SuppressWarnings("unchecked")
+                            A merged = downstream.combiner().apply((A) left[i], (A) right[i]);
+                            left[i] = merged;
+                        }
+                    }
+                    return left;
+                },
+                containers -> {
+                    Map<K, D> result = new EnumMap<>(keyType);
+                    for (K key : keys) {
+                        @SuppressWarnings("unchecked")
+                        A container = (A) containers[key.ordinal()];
+                        if (container != null) {
+                            result.put(key, downstream.finisher().apply(container));
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private static long[] addAll(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+}
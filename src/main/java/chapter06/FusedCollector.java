@@ -0,0 +1,221 @@
+package chapter06;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collector.Characteristics.UNORDERED;
+
+/**
+ * 여러 컬렉터를 하나로 합쳐서 스트림을 한 번만 탐색하며 모든 집계를 계산하는 컬렉터.
+ * 각 집계의 누적자는 배열에 나란히 저장되고, 요소 하나를 탐색할 때 모든 누적자에 누적한다.
+ * 병렬 스트림에서는 하위 컬렉터의 combiner로 부분 결과를 합친다.
+ *
+ * <pre>
+ * FusedCollector.Builder&lt;Dish&gt; builder = FusedCollector.builder();
+ * Aggregate&lt;Long&gt; count = builder.count();
+ * Aggregate&lt;Long&gt; total = builder.sum(Dish::getCalories);
+ * Result result = menu.stream().collect(builder.build());
+ * long totalCalories = result.get(total);
+ * </pre>
+ */
+public class FusedCollector<T> implements Collector<T, Object[], FusedCollector.Result> {
+
+    private final Object owner; // 이 컬렉터를 만든 빌더 (다른 빌더의 Aggregate로 결과를 조회하지 못하게 함)
+    private final Supplier<Object>[] suppliers;
+    private final BiConsumer<Object, T>[] accumulators;
+    private final BinaryOperator<Object>[] combiners;
+    private final Function<Object, Object>[] finishers;
+    private final Set<Characteristics> characteristics;
+
+    private FusedCollector(Object owner, List<Collector<? super T, ?, ?>> collectors) {
+        int n = collectors.size();
+        this.owner = owner;
+        this.suppliers = newArray(Supplier.class, n);
+        this.accumulators = newArray(BiConsumer.class, n);
+        this.combiners = newArray(BinaryOperator.class, n);
+        this.finishers = newArray(Function.class, n);
+        boolean unordered = true;
+        for (int i = 0; i < n; i++) {
+            Collector<T, Object, Object> c = erase(collectors.get(i));
+            suppliers[i] = c.supplier();
+            accumulators[i] = c.accumulator();
+            combiners[i] = c.combiner();
+            finishers[i] = c.finisher();
+            unordered &= c.characteristics().contains(UNORDERED);
+        }
+        // 하위 컬렉터가 모두 순서와 무관할 때만 UNORDERED (joining 등이 있으면 순서를 유지해야 함)
+        this.characteristics = unordered
+                ? Collections.unmodifiableSet(EnumSet.of(UNORDERED))
+                : Collections.emptySet();
+    }
+
+    /**
+     * 하위 컬렉터마다 누적자 형식이 다르므로 누적자를 Object로 다룬다.
+     * 각 컨테이너는 그 컨테이너를 만든 컬렉터의 함수에만 전달되므로 형식이 어긋나지 않는다.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Collector<T, Object, Object> erase(Collector<? super T, ?, ?> collector) {
+        return (Collector<T, Object, Object>) collector;
+    }
+
+    // 제네릭 형식의 배열은 직접 만들 수 없으므로 원소 형식의 배열을 만들어 캐스팅한다. (배열은 외부로 노출되지 않음)
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newArray(Class<?> componentType, int length) {
+        return (E[]) Array.newInstance(componentType, length);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public Supplier<Object[]> supplier() {
+        return () -> {
+            Object[] containers = new Object[suppliers.length];
+            for (int i = 0; i < containers.length; i++) {
+                containers[i] = suppliers[i].get();
+            }
+            return containers;
+        };
+    }
+
+    @Override
+    public BiConsumer<Object[], T> accumulator() {
+        return (containers, t) -> {
+            for (int i = 0; i < containers.length; i++) {
+                accumulators[i].accept(containers[i], t);
+            }
+        };
+    }
+
+    @Override
+    public BinaryOperator<Object[]> combiner() {
+        return (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i] = combiners[i].apply(left[i], right[i]);
+            }
+            return left;
+        };
+    }
+
+    @Override
+    public Function<Object[], Result> finisher() {
+        return containers -> {
+            Object[] values = new Object[containers.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = finishers[i].apply(containers[i]);
+            }
+            return new Result(owner, values);
+        };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return characteristics;
+    }
+
+    /**
+     * 집계를 등록하는 빌더. 등록할 때 돌려받은 Aggregate로 결과에서 값을 조회한다.
+     */
+    public static class Builder<T> {
+
+        private final List<Collector<? super T, ?, ?>> collectors = new ArrayList<>();
+
+        /**
+         * 임의의 컬렉터를 집계로 등록한다.
+         */
+        public <R> Aggregate<R> add(Collector<? super T, ?, R> collector) {
+            collectors.add(collector);
+            return new Aggregate<>(this, collectors.size() - 1);
+        }
+
+        public Aggregate<Long> count() {
+            return add(Collectors.counting());
+        }
+
+        public Aggregate<Long> sum(ToLongFunction<? super T> mapper) {
+            return add(Collectors.summingLong(mapper));
+        }
+
+        public Aggregate<Double> average(ToDoubleFunction<? super T> mapper) {
+            return add(Collectors.averagingDouble(mapper));
+        }
+
+        public Aggregate<Optional<T>> minBy(Comparator<? super T> comparator) {
+            return add(Collectors.minBy(comparator));
+        }
+
+        public Aggregate<Optional<T>> maxBy(Comparator<? super T> comparator) {
+            return add(Collectors.maxBy(comparator));
+        }
+
+        public Aggregate<String> joining(Function<? super T, ? extends CharSequence> mapper, CharSequence delimiter) {
+            return add(Collectors.mapping(mapper, Collectors.joining(delimiter)));
+        }
+
+        /**
+         * 서로 다른 키의 개수 (키를 모두 Set에 보관하므로 키가 매우 많으면 ApproximateCollectors를 사용한다.)
+         */
+        public <K> Aggregate<Integer> distinctCount(Function<? super T, ? extends K> keyExtractor) {
+            return add(Collectors.collectingAndThen(Collectors.mapping(keyExtractor, Collectors.toSet()), Set::size));
+        }
+
+        public FusedCollector<T> build() {
+            return new FusedCollector<T>(this, new ArrayList<Collector<? super T, ?, ?>>(collectors));
+        }
+
+    }
+
+    /**
+     * 빌더에 등록한 집계 하나를 가리키는 핸들. R은 그 집계의 결과 형식이다.
+     */
+    public static final class Aggregate<R> {
+
+        private final Object owner;
+        private final int index;
+
+        private Aggregate(Object owner, int index) {
+            this.owner = owner;
+            this.index = index;
+        }
+
+    }
+
+    /**
+     * 모든 집계의 결과. Aggregate 핸들로 형식에 맞게 조회한다.
+     */
+    public static final class Result {
+
+        private final Object owner;
+        private final Object[] values;
+
+        private Result(Object owner, Object[] values) {
+            this.owner = owner;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <R> R get(Aggregate<R> aggregate) {
+            if (aggregate.owner != owner || aggregate.index >= values.length) {
+                throw new IllegalArgumentException("Aggregate was not registered to the builder of this collector");
+            }
+            return (R) values[aggregate.index];
+        }
+
+    }
+
+}
@@ -25,6 +25,10 @@ public class Grouping {
         System.out.println("Most caloric dishes by type: " + mostCaloricDishesByTypeWithoutOptionals());
         System.out.println("Sum calories by type: " + sumCaloriesByType());
         System.out.println("Caloric levels by type: " + caloricLevelsByType());
+        System.out.println("Count dishes in groups (EnumMap): " + countDishesInGroupsByOrdinal());
+        System.out.println("Sum calories by type (EnumMap): " + sumCaloriesByTypeByOrdinal());
+        System.out.println("Dishes grouped by caloric level (EnumMap): " + groupDishesByCaloricLevelByOrdinal());
+        System.out.println("Count dishes by type and caloric level (one pass): " + countDishesByTypeAndCaloricLevel());
     }
 
     private static Map<Dish.Type, List<Dish>> groupDishesByType() {
@@ -107,6 +111,37 @@ public class Grouping {
                 summingInt(Dish::getCalories)));
     }
 
+    // 키가 enum이면 HashMap과 박싱된 누적자 대신 ordinal로 인덱싱한 배열에 누적한다.
+    private static Map<Dish.Type, Long> countDishesInGroupsByOrdinal() {
+        return menu.stream().collect(EnumCollectors.countingBy(Dish.Type.class, Dish::getType));
+    }
+
+    private static Map<Dish.Type, Long> sumCaloriesByTypeByOrdinal() {
+        return menu.stream().collect(EnumCollectors.summingBy(Dish.Type.class, Dish::getType, Dish::getCalories));
+    }
+
+    private static Map<CaloricLevel, List<Dish>> groupDishesByCaloricLevelByOrdinal() {
+        return menu.stream().collect(
+                EnumCollectors.groupingBy(CaloricLevel.class, Grouping::caloricLevel, toList()));
+    }
+
+    // 두 수준 그룹화를 List 버킷 없이 한 번에 누적한다. (병렬 스트림에서 부분 맵을 병합하지 않음)
+    private static Map<Dish.Type, Map<CaloricLevel, Long>> countDishesByTypeAndCaloricLevel() {
+        return menu.parallelStream().collect(
+                StripedGrouping.countingBy(Dish::getType, Grouping::caloricLevel,
+                        Dish.Type.values().length * CaloricLevel.values().length));
+    }
+
+    private static CaloricLevel caloricLevel(Dish dish) {
+        if (dish.getCalories() <= 400) {
+            return CaloricLevel.DIET;
+        } else if (dish.getCalories() <= 700) {
+            return CaloricLevel.NORMAL;
+        } else {
+            return CaloricLevel.FAT;
+        }
+    }
+
     private static Map<Dish.Type, Set<CaloricLevel>> caloricLevelsByType() {
         return menu.stream().collect(
                 groupingBy(Dish::getType, mapping(
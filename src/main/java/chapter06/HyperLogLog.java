@@ -0,0 +1,112 @@
+package chapter06;
+
+/**
+ * 서로 다른 값의 개수를 고정된 메모리(2^precision 바이트)로 추정하는 HyperLogLog 스케치.
+ * 값의 64비트 해시에서 상위 precision 비트로 레지스터를 고르고, 나머지 비트의 선행 0 개수 + 1의 최댓값을 기록한다.
+ * 상대 표준 오차는 약 1.04 / sqrt(2^precision)이다. (precision 14 : 16KB, 약 0.8%)
+ * 두 스케치는 레지스터마다 최댓값을 취해서 병합하므로 병렬 스트림의 combiner에서 사용할 수 있다.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(Object value) {
+        addHash(hash64(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 레지스터 인덱스로 쓴 비트를 밀어낸 다음 선행 0을 센다. (센티널 비트로 최댓값을 64 - precision + 1로 제한)
+        long rest = hash << precision | 1L << (precision - 1);
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) { // 값이 적을 때는 빈 레지스터 비율로 추정 (linear counting)
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * hashCode는 32비트라서 수십억 개의 값을 구분하지 못하므로 문자열과 정수는 64비트로 직접 해시한다.
+     */
+    static long hash64(Object value) {
+        if (value instanceof CharSequence) {
+            CharSequence s = (CharSequence) value;
+            long h = 0xcbf29ce484222325L; // FNV-1a
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+            return mix64(h);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix64(((Number) value).longValue());
+        }
+        return mix64(value.hashCode());
+    }
+
+    // MurmurHash3의 마지막 섞기 단계 (입력 비트가 출력의 모든 비트에 고르게 영향을 줌)
+    private static long mix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
@@ -0,0 +1,236 @@
+package chapter06;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 스트림의 분위수(중앙값, p99 등)를 고정된 메모리로 근사하는 KLL 스케치.
+ * 값을 여러 단계(level)의 버퍼에 저장하는데, h 단계의 값 하나는 원래 값 2^h개를 대표한다.
+ * 버퍼가 가득 차면 정렬한 다음 짝수 또는 홀수 번째 값만(무작위로 선택) 다음 단계로 올려 크기를 절반으로 줄인다.
+ * 위 단계일수록 버퍼가 크므로(아래로 갈수록 2/3배) 저장하는 값의 수는 O(k)이고 순위 오차는 약 1.7 / k다.
+ * 두 스케치는 단계별로 버퍼를 이어 붙인 다음 다시 압축해서 병합한다.
+ * 단계별 용량은 단계가 늘어날 때만 다시 계산하고, 분위수 조회에 쓰는 정렬된 값은 다음 add나 merge 전까지 재사용한다.
+ */
+public class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_LEVEL_CAPACITY]};
+    private int[] sizes = {0};
+    private int[] capacities; // 단계별 용량 (단계 수가 바뀔 때만 다시 계산)
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    // 압축할 때 짝수/홀수를 고르는 xorshift 상태. 병렬 스트림의 스케치들이 같은 선택을 반복하지 않도록 인스턴스마다 다르게 시작한다.
+    private long random = ThreadLocalRandom.current().nextLong() | 1;
+    private double[] sortedValues; // 모든 값을 정렬한 배열 (add나 merge하면 null로 무효화)
+    private long[] cumulativeWeights; // sortedValues[i] 이하인 값이 대표하는 원래 값의 수
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.capacities = computeCapacities(1);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sortedValues = null;
+        if (sizes[0] >= capacities[0]) { // 0 단계가 차기 전에는 다른 단계도 바뀌지 않는다.
+            compress();
+        }
+    }
+
+    public KllSketch merge(KllSketch other) {
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sortedValues = null;
+        compress();
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param q 0 ~ 1 (0.5는 중앙값)
+     * @return q 분위수의 근삿값. 값이 없으면 NaN
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        sort();
+        double target = q * count;
+        // 누적 가중치가 target 이상이 되는 첫 번째 값을 이진 탐색으로 찾는다.
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        if (cumulativeWeights[high] < target) {
+            return max;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] >= target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return sortedValues[low];
+    }
+
+    /**
+     * @return value 이하인 값의 비율의 근삿값
+     */
+    public double rank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) {
+                    weight += 1L << h;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    // 단계마다 정렬한 다음 차례로 병합해서 값과 누적 가중치를 함께 정렬한다. (박싱이나 비교자 없이 O(n log n))
+    private void sort() {
+        if (sortedValues != null) {
+            return;
+        }
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levels.length; h++) {
+            double[] level = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(level);
+            long weight = 1L << h;
+            double[] mergedValues = new double[values.length + level.length];
+            long[] mergedWeights = new long[mergedValues.length];
+            int i = 0;
+            int j = 0;
+            for (int n = 0; n < mergedValues.length; n++) {
+                if (j >= level.length || (i < values.length && values[i] <= level[j])) {
+                    mergedValues[n] = values[i];
+                    mergedWeights[n] = weights[i++];
+                } else {
+                    mergedValues[n] = level[j++];
+                    mergedWeights[n] = weight;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        sortedValues = values;
+        cumulativeWeights = weights;
+    }
+
+    private int[] computeCapacities(int levelCount) {
+        int[] result = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            int depth = levelCount - 1 - level; // 가장 위 단계가 k, 한 단계 내려갈 때마다 2/3배
+            result[level] = Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+        }
+        return result;
+    }
+
+    private void compress() {
+        boolean compacted;
+        do {
+            compacted = false;
+            for (int h = 0; h < levels.length; h++) {
+                if (sizes[h] >= capacities[h]) {
+                    compact(h);
+                    compacted = true;
+                    break;
+                }
+            }
+        } while (compacted);
+    }
+
+    // h 단계를 정렬하고 두 값 중 하나만 h + 1 단계로 올린다. 개수가 홀수면 가장 작은 값 하나는 남긴다.
+    private void compact(int h) {
+        if (h == levels.length - 1) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[h + 1] = new double[MIN_LEVEL_CAPACITY];
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+            capacities = computeCapacities(levels.length);
+        }
+        double[] items = levels[h];
+        int size = sizes[h];
+        Arrays.sort(items, 0, size);
+        int keep = size & 1;
+        int offset = nextBit();
+        for (int i = keep + offset; i < size; i += 2) {
+            append(h + 1, items[i]);
+        }
+        sizes[h] = keep;
+    }
+
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int h = 0; h < levels.length; h++) {
+                if (levels[h] == null) {
+                    levels[h] = new double[MIN_LEVEL_CAPACITY];
+                }
+            }
+            capacities = computeCapacities(levels.length);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KllSketch{count=%d, min=%s, p50=%s, p90=%s, p99=%s, max=%s}",
+                count, min, quantile(0.5), quantile(0.9), quantile(0.99), max);
+    }
+
+}
@@ -0,0 +1,109 @@
+package chapter06;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 요소를 배열 조각(segment)의 연결 리스트에 누적하는 리스트 컬렉터.
+ * - 누적 : 조각이 가득 차면 새 조각을 연결하므로 ArrayList처럼 기존 요소를 복사하며 늘리지 않는다.
+ * - 병합 : 두 번째 누적자의 조각을 첫 번째 누적자 뒤에 연결만 하므로 병렬 스트림의 병합 단계마다 복사하지 않는다.
+ * - 완료 : 전체 크기를 알게 된 다음 한 번만 정확한 크기의 배열로 복사한다.
+ * 결과는 크기를 바꿀 수 없는 리스트다. (Arrays.asList)
+ */
+public class SegmentedListCollector<T> implements Collector<T, SegmentedListCollector.Segments<T>, List<T>> {
+
+    private static final int FIRST_SEGMENT_SIZE = 16;
+    private static final int MAX_SEGMENT_SIZE = 1 << 16;
+
+    @Override
+    public Supplier<Segments<T>> supplier() {
+        return Segments::new;
+    }
+
+    @Override
+    public BiConsumer<Segments<T>, T> accumulator() {
+        return Segments::add;
+    }
+
+    @Override
+    public BinaryOperator<Segments<T>> combiner() {
+        return Segments::link;
+    }
+
+    @Override
+    public Function<Segments<T>, List<T>> finisher() {
+        return Segments::toList;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    static class Segments<T> {
+
+        private Segment head;
+        private Segment tail;
+        private int size;
+
+        void add(T t) {
+            if (tail == null || tail.count == tail.items.length) {
+                int capacity = tail == null ? FIRST_SEGMENT_SIZE : Math.min(MAX_SEGMENT_SIZE, tail.items.length * 2);
+                append(new Segment(capacity));
+            }
+            tail.items[tail.count++] = t;
+            size++;
+        }
+
+        private void append(Segment segment) {
+            if (tail == null) {
+                head = segment;
+            } else {
+                tail.next = segment;
+            }
+            tail = segment;
+        }
+
+        Segments<T> link(Segments<T> other) {
+            if (other.head == null) {
+                return this;
+            }
+            if (head == null) {
+                return other;
+            }
+            tail.next = other.head;
+            tail = other.tail;
+            size += other.size;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            Object[] result = new Object[size];
+            int position = 0;
+            for (Segment s = head; s != null; s = s.next) {
+                System.arraycopy(s.items, 0, result, position, s.count);
+                position += s.count;
+            }
+            return (List<T>) Arrays.asList(result);
+        }
+
+    }
+
+    private static class Segment {
+
+        final Object[] items;
+        int count;
+        Segment next;
+
+        Segment(int capacity) {
+            this.items = new Object[capacity];
+        }
+
+    }
+
+}
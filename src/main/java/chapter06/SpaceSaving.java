@@ -0,0 +1,180 @@
+package chapter06;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 가장 자주 나오는 값(heavy hitters)을 고정된 개수의 카운터로 찾는 Space-Saving 스케치.
+ * 카운터가 모두 차 있을 때 새 값이 나오면 가장 작은 카운터를 그 값에 넘겨주고 원래 개수 + 1부터 센다.
+ * 따라서 추정 개수는 실제 개수보다 크거나 같고, 그 차이는 카운터마다 기록한 error 이하다.
+ * 개수가 전체의 1 / capacity보다 많은 값은 반드시 카운터에 남아 있다.
+ * 카운터는 개수 순서의 최소 힙으로 관리하므로 가장 작은 카운터를 O(1)에 찾고 O(log capacity)에 갱신한다.
+ */
+public class SpaceSaving<T> {
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    private final Counter<T>[] heap;
+    private int size;
+
+    @SuppressWarnings("unchecked") // 제네릭 배열을 만들 수 없으므로 와일드카드 배열을 캐스팅한다.
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+        this.heap = (Counter<T>[]) new Counter<?>[capacity];
+    }
+
+    public void add(T item) {
+        add(item, 1, 0);
+    }
+
+    private void add(T item, long count, long error) {
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            counter.error += error;
+            siftDown(counter.index);
+        } else if (size < capacity) {
+            counter = new Counter<>(item, count, error);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.index);
+        } else { // 가장 작은 카운터를 새 값에 넘겨준다.
+            counter = heap[0];
+            counters.remove(counter.item);
+            counter.item = item;
+            counter.error = counter.count + error;
+            counter.count += count;
+            counters.put(item, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 한쪽 스케치에 없는 값은 그 스케치에서 최대 (가장 작은 카운터의 개수)만큼 나왔을 수 있으므로 그만큼 더한다.
+     * 합친 다음 개수가 큰 capacity개의 카운터만 남긴다.
+     */
+    public SpaceSaving<T> merge(SpaceSaving<T> other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        List<Counter<T>> merged = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            Counter<T> c = heap[i];
+            Counter<T> o = other.counters.get(c.item);
+            merged.add(o == null
+                    ? new Counter<>(c.item, c.count + otherMin, c.error + otherMin)
+                    : new Counter<>(c.item, c.count + o.count, c.error + o.error));
+        }
+        for (int i = 0; i < other.size; i++) {
+            Counter<T> o = other.heap[i];
+            if (!counters.containsKey(o.item)) {
+                merged.add(new Counter<>(o.item, o.count + thisMin, o.error + thisMin));
+            }
+        }
+        merged.sort(Comparator.comparingLong((Counter<T> c) -> c.count).reversed());
+
+        counters.clear();
+        size = 0;
+        for (Counter<T> c : merged.subList(0, Math.min(capacity, merged.size()))) {
+            add(c.item, c.count, c.error);
+        }
+        return this;
+    }
+
+    // 카운터가 다 차지 않았으면 카운터에 없는 값은 한 번도 나오지 않은 것이다.
+    private long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * @return 추정 개수가 큰 순서로 최대 k개의 카운터 (스케치와 독립된 복사본)
+     */
+    public List<Counter<T>> topK(int k) {
+        List<Counter<T>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Counter<>(heap[i].item, heap[i].count, heap[i].error));
+        }
+        result.sort(Comparator.comparingLong((Counter<T> c) -> c.count).reversed());
+        return new ArrayList<>(result.subList(0, Math.min(k, result.size())));
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= heap[i].count) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && heap[left + 1].count < heap[left].count ? left + 1 : left;
+            if (heap[i].count <= heap[smallest].count) {
+                break;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Counter<T> tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        heap[i].index = i;
+        heap[j].index = j;
+    }
+
+    public static class Counter<T> {
+
+        private T item;
+        private long count;
+        private long error;
+        private int index; // 힙에서의 위치
+
+        Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return 추정 개수 (실제 개수 이상)
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 추정 개수와 실제 개수의 최대 차이
+         */
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + count + (error > 0 ? "(±" + error + ")" : "");
+        }
+
+    }
+
+}
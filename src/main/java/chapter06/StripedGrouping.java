@@ -0,0 +1,371 @@
+package chapter06;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import static java.util.stream.Collector.Characteristics.CONCURRENT;
+import static java.util.stream.Collector.Characteristics.UNORDERED;
+
+/**
+ * 병렬 스트림용 groupingBy(..., counting()) / groupingBy(..., summingLong(...)).
+ * 스트림을 탐색하면서 관찰한 키 개수에 따라 누적 방식을 바꾼다.
+ * - 키가 적은 동안 : 스레드마다 자기 HashMap에 누적하고 완료할 때 한 번만 합친다. (인기 있는 키도 경합이 없음)
+ * - 어느 스레드의 맵이든 키가 LOW_CARDINALITY_THRESHOLD개를 넘으면 : 스레드별 맵을 합치는 비용이 커지므로
+ *   그때부터 모든 스레드가 ConcurrentHashMap 하나를 공유하고 키마다 LongAdder로 누적한다.
+ *   LongAdder는 경합이 생기면 내부 셀을 나누므로 인기 있는 키에 스레드가 몰려도 CAS 재시도가 줄어든다.
+ *   전환하기 전에 스레드별 맵에 누적한 값은 완료할 때 공유 맵에 합친다.
+ * 컬렉터는 CONCURRENT이므로 groupingBy처럼 부분 맵을 둘씩 병합하지 않는다.
+ * expectedKeys는 힌트일 뿐이다. 임계값보다 크면 처음부터 공유 맵에 누적하고 그 크기로 맵을 만든다.
+ *
+ * 두 수준 그룹화도 같은 방식으로 중첩 맵에 바로 합계를 누적하므로
+ * groupingBy(f1, groupingBy(f2))처럼 그룹마다 하위 컬렉터의 컨테이너를 유지하지 않고, 요소마다 키 객체를 만들지도 않는다.
+ * 스레드별 맵은 ThreadLocal이 아니라 컬렉터의 컨테이너가 소유하고 완료할 때 비우므로 워커 스레드에 남지 않는다.
+ *
+ * 제약 : 키 하나당 long 합계 하나를 변경 가능한 셀(long[1], LongAdder)로 누적하는 방식이므로
+ * 하위 컬렉터는 개수와 long 합계만, 그룹화는 두 수준까지만 지원한다.
+ * 임의의 하위 컬렉터는 키마다 스레드 안전하지 않은 컨테이너가 필요하므로 Collectors.groupingByConcurrent를 사용한다.
+ */
+public class StripedGrouping {
+
+    static final int LOW_CARDINALITY_THRESHOLD = 1 << 10; // 스레드별 맵의 키가 이 개수를 넘으면 공유 맵으로 전환
+
+    private StripedGrouping() {
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> countingBy(Function<? super T, ? extends K> classifier) {
+        return countingBy(classifier, 0);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> countingBy(
+            Function<? super T, ? extends K> classifier, int expectedKeys) {
+        return summingBy(classifier, t -> 1L, expectedKeys);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingBy(
+            Function<? super T, ? extends K> classifier, ToLongFunction<? super T> mapper) {
+        return summingBy(classifier, mapper, 0);
+    }
+
+    /**
+     * @param expectedKeys 예상 키 개수 (힌트)
+     */
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingBy(
+            Function<? super T, ? extends K> classifier, ToLongFunction<? super T> mapper, int expectedKeys) {
+        return new SummingGrouping<>(classifier, mapper, expectedKeys);
+    }
+
+    public static <T, K1, K2> Collector<T, ?, Map<K1, Map<K2, Long>>> countingBy(
+            Function<? super T, ? extends K1> classifier1, Function<? super T, ? extends K2> classifier2) {
+        return countingBy(classifier1, classifier2, 0);
+    }
+
+    /**
+     * @param expectedKeys (키1, 키2) 쌍의 예상 개수 (힌트)
+     */
+    public static <T, K1, K2> Collector<T, ?, Map<K1, Map<K2, Long>>> countingBy(
+            Function<? super T, ? extends K1> classifier1, Function<? super T, ? extends K2> classifier2,
+            int expectedKeys) {
+        return summingBy(classifier1, classifier2, t -> 1L, expectedKeys);
+    }
+
+    public static <T, K1, K2> Collector<T, ?, Map<K1, Map<K2, Long>>> summingBy(
+            Function<? super T, ? extends K1> classifier1, Function<? super T, ? extends K2> classifier2,
+            ToLongFunction<? super T> mapper, int expectedKeys) {
+        return new SummingGrouping2<>(classifier1, classifier2, mapper, expectedKeys);
+    }
+
+    private static <K> K requireKey(K key) {
+        return Objects.requireNonNull(key, "element cannot be mapped to a null key");
+    }
+
+    private static final Set<Collector.Characteristics> CONCURRENT_UNORDERED =
+            Collections.unmodifiableSet(EnumSet.of(CONCURRENT, UNORDERED));
+
+    /**
+     * 스레드별 맵(L)에 누적하다가 키가 많아지면 공유 맵(G)으로 전환하는 컬렉터의 공통 부분.
+     */
+    private abstract static class AdaptiveGrouping<T, L, G, R> implements Collector<T, Container<L, G>, R> {
+
+        private final boolean startShared;
+
+        AdaptiveGrouping(int expectedKeys) {
+            this.startShared = expectedKeys > LOW_CARDINALITY_THRESHOLD;
+        }
+
+        abstract L newLocal();
+
+        abstract G newShared();
+
+        /**
+         * @return 새 키가 생겼으면 true
+         */
+        abstract boolean addLocal(L local, T t);
+
+        abstract void addShared(G shared, T t);
+
+        abstract void flush(L local, G shared);
+
+        abstract void mergeShared(G into, G from);
+
+        abstract R finish(G shared);
+
+        @Override
+        public Supplier<Container<L, G>> supplier() {
+            return () -> new Container<>(newShared(), startShared);
+        }
+
+        @Override
+        public BiConsumer<Container<L, G>, T> accumulator() {
+            return (container, t) -> {
+                if (container.shared) {
+                    addShared(container.sharedMap, t);
+                    return;
+                }
+                Local<L> local = container.local(this::newLocal);
+                if (addLocal(local.map, t) && ++local.keys > LOW_CARDINALITY_THRESHOLD) {
+                    container.shared = true; // 다른 스레드도 다음 요소부터 공유 맵에 누적한다.
+                }
+            };
+        }
+
+        @Override
+        public BinaryOperator<Container<L, G>> combiner() {
+            return (left, right) -> { // CONCURRENT로 실행되지 않을 때만 사용된다.
+                right.drain(this::flush);
+                mergeShared(left.sharedMap, right.sharedMap);
+                left.shared |= right.shared;
+                return left;
+            };
+        }
+
+        @Override
+        public Function<Container<L, G>, R> finisher() {
+            return container -> {
+                container.drain(this::flush); // 전환하기 전에 스레드별 맵에 누적한 값을 합친다.
+                return finish(container.sharedMap);
+            };
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return CONCURRENT_UNORDERED;
+        }
+
+    }
+
+    /**
+     * 누적 컨테이너 : 스레드별 맵과 공유 맵, 그리고 어느 쪽에 누적하는지를 나타내는 플래그.
+     */
+    static final class Container<L, G> {
+
+        private final ConcurrentMap<Thread, Local<L>> locals = new ConcurrentHashMap<>();
+        private final G sharedMap;
+        private volatile boolean shared; // true면 모든 스레드가 공유 맵에 누적
+
+        Container(G sharedMap, boolean shared) {
+            this.sharedMap = sharedMap;
+            this.shared = shared;
+        }
+
+        // 현재 스레드의 맵. 각 맵은 키인 스레드만 수정한다.
+        Local<L> local(Supplier<L> factory) {
+            Thread current = Thread.currentThread();
+            Local<L> local = locals.get(current); // 대부분은 잠금 없는 조회로 끝난다.
+            if (local == null) {
+                local = locals.computeIfAbsent(current, thread -> new Local<>(factory.get()));
+            }
+            return local;
+        }
+
+        // 스레드별 맵을 공유 맵에 합치고 비운다. 모든 누적이 끝난 다음에 호출해야 한다.
+        void drain(BiConsumer<L, G> flush) {
+            for (Local<L> local : locals.values()) {
+                flush.accept(local.map, sharedMap);
+            }
+            locals.clear();
+        }
+
+    }
+
+    static final class Local<L> {
+
+        private final L map;
+        private int keys; // 이 스레드의 맵에 있는 키 개수
+
+        Local(L map) {
+            this.map = map;
+        }
+
+    }
+
+    /**
+     * 한 수준 : 스레드별 HashMap<K, long[]> (long[1]을 변경 가능한 합계로 사용해서 박싱하지 않음),
+     * 공유 ConcurrentHashMap<K, LongAdder>
+     */
+    private static class SummingGrouping<T, K>
+            extends AdaptiveGrouping<T, Map<K, long[]>, ConcurrentHashMap<K, LongAdder>, Map<K, Long>> {
+
+        private final Function<? super T, ? extends K> classifier;
+        private final ToLongFunction<? super T> mapper;
+        private final int expectedKeys;
+
+        SummingGrouping(Function<? super T, ? extends K> classifier, ToLongFunction<? super T> mapper, int expectedKeys) {
+            super(expectedKeys);
+            this.classifier = classifier;
+            this.mapper = mapper;
+            this.expectedKeys = expectedKeys;
+        }
+
+        @Override
+        Map<K, long[]> newLocal() {
+            return new HashMap<>();
+        }
+
+        @Override
+        ConcurrentHashMap<K, LongAdder> newShared() {
+            return new ConcurrentHashMap<>(Math.max(16, expectedKeys));
+        }
+
+        @Override
+        boolean addLocal(Map<K, long[]> local, T t) {
+            return addSum(local, requireKey(classifier.apply(t)), mapper.applyAsLong(t));
+        }
+
+        @Override
+        void addShared(ConcurrentHashMap<K, LongAdder> shared, T t) {
+            adder(shared, requireKey(classifier.apply(t))).add(mapper.applyAsLong(t));
+        }
+
+        @Override
+        void flush(Map<K, long[]> local, ConcurrentHashMap<K, LongAdder> shared) {
+            local.forEach((key, sum) -> adder(shared, key).add(sum[0]));
+        }
+
+        @Override
+        void mergeShared(ConcurrentHashMap<K, LongAdder> into, ConcurrentHashMap<K, LongAdder> from) {
+            from.forEach((key, adder) -> adder(into, key).add(adder.sum()));
+        }
+
+        @Override
+        Map<K, Long> finish(ConcurrentHashMap<K, LongAdder> shared) {
+            Map<K, Long> result = new HashMap<>(shared.size() * 4 / 3 + 1);
+            shared.forEach((key, adder) -> result.put(key, adder.sum()));
+            return result;
+        }
+
+    }
+
+    /**
+     * 두 수준 : 스레드별 HashMap<K1, HashMap<K2, long[]>>, 공유 ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>>
+     * 전환 기준은 스레드별 맵에 있는 (키1, 키2) 쌍의 개수다.
+     */
+    private static class SummingGrouping2<T, K1, K2> extends AdaptiveGrouping<T, Map<K1, Map<K2, long[]>>,
+            ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>>, Map<K1, Map<K2, Long>>> {
+
+        private final Function<? super T, ? extends K1> classifier1;
+        private final Function<? super T, ? extends K2> classifier2;
+        private final ToLongFunction<? super T> mapper;
+
+        SummingGrouping2(Function<? super T, ? extends K1> classifier1, Function<? super T, ? extends K2> classifier2,
+                         ToLongFunction<? super T> mapper, int expectedKeys) {
+            super(expectedKeys);
+            this.classifier1 = classifier1;
+            this.classifier2 = classifier2;
+            this.mapper = mapper;
+        }
+
+        @Override
+        Map<K1, Map<K2, long[]>> newLocal() {
+            return new HashMap<>();
+        }
+
+        @Override
+        ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> newShared() {
+            return new ConcurrentHashMap<>(); // 쌍의 개수만 알고 키별 개수는 모르므로 기본 크기로 시작
+        }
+
+        @Override
+        boolean addLocal(Map<K1, Map<K2, long[]>> local, T t) {
+            K1 key1 = requireKey(classifier1.apply(t));
+            Map<K2, long[]> inner = local.get(key1);
+            if (inner == null) {
+                inner = new HashMap<>();
+                local.put(key1, inner);
+            }
+            return addSum(inner, requireKey(classifier2.apply(t)), mapper.applyAsLong(t));
+        }
+
+        @Override
+        void addShared(ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> shared, T t) {
+            adder(inner(shared, requireKey(classifier1.apply(t))), requireKey(classifier2.apply(t)))
+                    .add(mapper.applyAsLong(t));
+        }
+
+        @Override
+        void flush(Map<K1, Map<K2, long[]>> local, ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> shared) {
+            local.forEach((key1, sums) -> {
+                ConcurrentHashMap<K2, LongAdder> inner = inner(shared, key1);
+                sums.forEach((key2, sum) -> adder(inner, key2).add(sum[0]));
+            });
+        }
+
+        @Override
+        void mergeShared(ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> into,
+                         ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> from) {
+            from.forEach((key1, adders) -> {
+                ConcurrentHashMap<K2, LongAdder> inner = inner(into, key1);
+                adders.forEach((key2, adder) -> adder(inner, key2).add(adder.sum()));
+            });
+        }
+
+        @Override
+        Map<K1, Map<K2, Long>> finish(ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> shared) {
+            Map<K1, Map<K2, Long>> result = new HashMap<>(shared.size() * 4 / 3 + 1);
+            shared.forEach((key1, adders) -> {
+                Map<K2, Long> inner = new HashMap<>(adders.size() * 4 / 3 + 1);
+                adders.forEach((key2, adder) -> inner.put(key2, adder.sum()));
+                result.put(key1, inner);
+            });
+            return result;
+        }
+
+        private static <K1, K2> ConcurrentHashMap<K2, LongAdder> inner(
+                ConcurrentHashMap<K1, ConcurrentHashMap<K2, LongAdder>> map, K1 key1) {
+            ConcurrentHashMap<K2, LongAdder> inner = map.get(key1);
+            return inner != null ? inner : map.computeIfAbsent(key1, k -> new ConcurrentHashMap<>());
+        }
+
+    }
+
+    /**
+     * @return 새 키가 생겼으면 true
+     */
+    private static <K> boolean addSum(Map<K, long[]> map, K key, long value) {
+        long[] sum = map.get(key);
+        if (sum == null) {
+            map.put(key, new long[]{value});
+            return true;
+        }
+        sum[0] += value;
+        return false;
+    }
+
+    private static <K> LongAdder adder(ConcurrentHashMap<K, LongAdder> map, K key) {
+        LongAdder adder = map.get(key); // 이미 있는 키는 잠금 없이 조회
+        return adder != null ? adder : map.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+}
@@ -2,8 +2,11 @@ package chapter06;
 
 import java.util.Comparator;
 import java.util.IntSummaryStatistics;
+import java.util.Optional;
 import java.util.function.BinaryOperator;
 
+import chapter06.FusedCollector.Aggregate;
+
 import static java.util.stream.Collectors.*;
 import static chapter06.Dish.menu;
 
@@ -18,6 +21,8 @@ public class Summarizing {
         System.out.println("Menu statistics: " + calculateMenuStatistics());
         System.out.println("Short menu: " + getShortMenu());
         System.out.println("Short menu comma separated: " + getShortMenuCommaSeparated());
+        printMenuSummaryInOnePass();
+        printApproximateMenuStatistics();
     }
 
     private static long howManyDishes() {
@@ -54,4 +59,35 @@ public class Summarizing {
         return menu.stream().map(Dish::getName).collect(joining(", "));
     }
 
+    // 위의 집계를 스트림을 한 번만 탐색해서 모두 계산
+    private static void printMenuSummaryInOnePass() {
+        FusedCollector.Builder<Dish> builder = FusedCollector.builder();
+        Aggregate<Long> count = builder.count();
+        Aggregate<Optional<Dish>> mostCaloric = builder.maxBy(Comparator.comparingInt(Dish::getCalories));
+        Aggregate<Long> total = builder.sum(Dish::getCalories);
+        Aggregate<Double> average = builder.average(Dish::getCalories);
+        Aggregate<IntSummaryStatistics> statistics = builder.add(summarizingInt(Dish::getCalories));
+        Aggregate<String> names = builder.joining(Dish::getName, ", ");
+        Aggregate<Integer> types = builder.distinctCount(Dish::getType);
+
+        FusedCollector.Result result = menu.parallelStream().collect(builder.build());
+        System.out.println("One pass: dishes=" + result.get(count)
+                + ", most caloric=" + result.get(mostCaloric).get()
+                + ", total=" + result.get(total)
+                + ", average=" + result.get(average)
+                + ", statistics=" + result.get(statistics)
+                + ", names=" + result.get(names)
+                + ", types=" + result.get(types));
+    }
+
+    // 메모리가 고정된 근사 집계 (아주 큰 스트림에서도 힙 사용량이 늘어나지 않음)
+    private static void printApproximateMenuStatistics() {
+        System.out.println("Approximate distinct dish names: "
+                + menu.stream().collect(ApproximateCollectors.approximateDistinctCount(Dish::getName)));
+        KllSketch calories = menu.stream().collect(ApproximateCollectors.quantiles(Dish::getCalories));
+        System.out.println("Median calories: " + calories.quantile(0.5));
+        System.out.println("Most common dish types: "
+                + menu.stream().collect(ApproximateCollectors.heavyHitters(Dish::getType, 2)));
+    }
+
 }
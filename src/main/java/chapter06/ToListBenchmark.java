@@ -0,0 +1,76 @@
+package chapter06;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 10,000,000개의 요소를 리스트로 수집하는 컬렉터 비교 (순차/병렬)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+public class ToListBenchmark {
+
+    private static final int N = 10_000_000;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private Integer[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new Integer[N];
+        Arrays.setAll(data, Integer::valueOf);
+    }
+
+    private Stream<Integer> stream() {
+        Stream<Integer> stream = Arrays.stream(data);
+        return parallel ? stream.parallel() : stream;
+    }
+
+    @Benchmark
+    public List<Integer> collectorsToList() {
+        return stream().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> toListCollector() {
+        return stream().collect(new ToListCollector<>());
+    }
+
+    @Benchmark
+    public List<Integer> presizedToListCollector() { // 미리 크기를 정하는 것은 순차 스트림에서만 의미가 있다.
+        return stream().collect(parallel ? new ToListCollector<>() : new ToListCollector<>(N));
+    }
+
+    @Benchmark
+    public List<Integer> segmentedListCollector() {
+        return stream().collect(new SegmentedListCollector<>());
+    }
+
+    @Benchmark
+    public List<Integer> concurrentListCollector() {
+        return stream().collect(new ConcurrentListCollector<>());
+    }
+
+}
@@ -7,14 +7,28 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-import static java.util.stream.Collector.Characteristics.CONCURRENT;
 import static java.util.stream.Collector.Characteristics.IDENTITY_FINISH;
 
 public class ToListCollector<T> implements Collector<T, List<T>, List<T>> {
 
+    private final int expectedSize; // 예상 요소 수 (0이면 ArrayList의 기본 용량)
+
+    public ToListCollector() {
+        this(0);
+    }
+
+    /**
+     * 순차 스트림 전용 : 수집할 요소 수를 미리 알면 처음부터 그 크기로 리스트를 만들어서 중간에 배열을 다시 할당하지 않는다.
+     * 병렬 스트림에서는 부분 결과마다 이 크기의 리스트를 만들게 되므로 기본 생성자를 사용한다.
+     * (병렬 스트림에서는 combiner가 두 부분의 크기를 합친 용량을 한 번에 확보한다.)
+     */
+    public ToListCollector(int expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+
     @Override
     public Supplier<List<T>> supplier() {
-        return ArrayList::new; // 수집 연산의 시작점
+        return () -> new ArrayList<>(expectedSize); // 수집 연산의 시작점
     }
 
     @Override
@@ -30,6 +44,7 @@ public class ToListCollector<T> implements Collector<T, List<T>, List<T>> {
     @Override
     public BinaryOperator<List<T>> combiner() {
         return (list1, list2) -> { // 두 번째 콘텐츠와 합쳐서 첫 번째 누적자를 고친다.
+            ((ArrayList<T>) list1).ensureCapacity(list1.size() + list2.size()); // 두 부분을 합친 크기로 한 번만 늘림
             list1.addAll(list2); // 변경된 첫 번째 누적자를 반환한다.
             return list1;
         };
@@ -37,7 +52,8 @@ public class ToListCollector<T> implements Collector<T, List<T>, List<T>> {
 
     @Override
     public Set<Characteristics> characteristics() {
-        return Collections.unmodifiableSet(EnumSet.of(IDENTITY_FINISH, CONCURRENT));
+        // ArrayList는 여러 스레드가 동시에 add할 수 없으므로 CONCURRENT가 아니다. (ConcurrentListCollector 참고)
+        return Collections.unmodifiableSet(EnumSet.of(IDENTITY_FINISH));
     }
 
 }
@@ -0,0 +1,86 @@
+package chapter07;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import chapter07.ParallelStreams.AtomicAccumulator;
+import chapter07.ParallelStreams.StripedAccumulator;
+import chapter07.ParallelStreams.SumAccumulator;
+import chapter07.ParallelStreams.ThreadLocalAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 여러 스레드가 하나의 누적자를 공유할 때의 처리량 (스레드 수에 따른 경쟁 곡선)
+ * main을 실행하면 스레드 수를 1부터 코어 수까지 늘려가며 누적자마다 처리량을 출력한다.
+ */
+@State(Scope.Benchmark) // 모든 벤치마크 스레드가 같은 누적자를 공유
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1)
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 3, time = 1)
+public class AccumulatorBenchmark {
+
+    @Param({"atomic", "striped", "threadLocal"})
+    private String type;
+
+    private SumAccumulator accumulator;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        switch (type) {
+            case "atomic":
+                accumulator = new AtomicAccumulator();
+                break;
+            case "striped":
+                accumulator = new StripedAccumulator();
+                break;
+            case "threadLocal":
+                accumulator = new ThreadLocalAccumulator();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown accumulator: " + type);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        accumulator.add(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(Runtime.getRuntime().availableProcessors());
+
+        System.out.println("accumulator,threads,ops_per_us");
+        for (int threads : threadCounts) {
+            for (RunResult result : new Runner(new OptionsBuilder()
+                    .include(AccumulatorBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run()) {
+                System.out.println(result.getParams().getParam("type") + "," + threads + ","
+                        + result.getPrimaryResult().getScore());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package chapter07;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import chapter07.forkjoin.AdaptiveForkJoinSumCalculator;
+import chapter07.forkjoin.ForkJoinSumCalculator;
+import chapter07.forkjoin.ForkJoinTaskTracer;
+import chapter07.forkjoin.TracingForkJoinSumCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * 고정 THRESHOLD와 적응형 분할의 ForkJoinSumCalculator 비교
+ * traced, sampledTraced와 fixedThreshold의 차이가 태스크 추적의 오버헤드다. (목표: 5% 미만)
+ * 10억 개의 long 배열은 8GB이므로 12GB의 힙 공간을 제공한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms12G", "-Xmx12G"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 5)
+public class ForkJoinSumBenchmark {
+
+    @Param({"1000", "100000", "10000000", "1000000000"})
+    private int size;
+
+    private long[] numbers;
+
+    @Setup(Level.Trial) // 배열 생성은 측정에서 제외
+    public void setUp() {
+        numbers = LongStream.rangeClosed(1, size).toArray();
+    }
+
+    @Benchmark
+    public long fixedThreshold() {
+        return FORK_JOIN_POOL.invoke(new ForkJoinSumCalculator(numbers));
+    }
+
+    @Benchmark
+    public long adaptive() {
+        return AdaptiveForkJoinSumCalculator.sum(numbers, FORK_JOIN_POOL);
+    }
+
+    @Benchmark
+    public long traced() { // 모든 태스크를 기록
+        return FORK_JOIN_POOL.invoke(new TracingForkJoinSumCalculator(numbers, new ForkJoinTaskTracer(FORK_JOIN_POOL, 1.0)));
+    }
+
+    @Benchmark
+    public long sampledTraced() { // 태스크의 1%만 기록
+        return FORK_JOIN_POOL.invoke(new TracingForkJoinSumCalculator(numbers, new ForkJoinTaskTracer(FORK_JOIN_POOL, 0.01)));
+    }
+
+}
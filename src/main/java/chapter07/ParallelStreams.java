@@ -1,5 +1,12 @@
 package chapter07;
 
+import chapter07.sequence.Sequences;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
@@ -38,6 +45,13 @@ public class ParallelStreams {
                 .get();
     }
 
+    // 분할 가능한 등차수열 (iterate와 같은 수열을 병렬 스트림으로)
+    public static long splittableParallelSum(long n) {
+        return Sequences.arithmetic(1, 1, n)
+                .parallel()
+                .sum();
+    }
+
     // LongStream.rangeClosed
     public static long rangedSum(long n) {
         return LongStream.rangeClosed(1, n)
@@ -68,12 +82,104 @@ public class ParallelStreams {
         return accumulator.total;
     }
 
-    public static class Accumulator {
+    public static long atomicParallelSum(long n) {
+        return parallelSum(n, new AtomicAccumulator());
+    }
+
+    public static long stripedParallelSum(long n) {
+        return parallelSum(n, new StripedAccumulator());
+    }
+
+    public static long threadLocalParallelSum(long n) {
+        return parallelSum(n, new ThreadLocalAccumulator());
+    }
+
+    private static long parallelSum(long n, SumAccumulator accumulator) {
+        LongStream.rangeClosed(1, n).parallel().forEach(accumulator); // 누적자 자체가 LongConsumer
+        return accumulator.total();
+    }
+
+    // 부수 효과가 있는 병렬 파이프라인에서 공유하는 누적자
+    public interface SumAccumulator extends LongConsumer {
+
+        void add(long value);
+
+        long total();
+
+        @Override
+        default void accept(long value) {
+            add(value);
+        }
+
+    }
+
+    // 동기화하지 않으므로 여러 스레드가 동시에 add를 호출하면 결과가 틀린다.
+    public static class Accumulator implements SumAccumulator {
         private long total = 0;
 
         public void add(long value) {
             total += value;
         }
+
+        @Override
+        public long total() {
+            return total;
+        }
+    }
+
+    // 하나의 변수를 원자적으로 갱신한다. 올바르지만 모든 스레드가 같은 캐시 라인을 두고 경쟁한다.
+    public static class AtomicAccumulator implements SumAccumulator {
+        private final AtomicLong total = new AtomicLong();
+
+        @Override
+        public void add(long value) {
+            total.addAndGet(value);
+        }
+
+        @Override
+        public long total() {
+            return total.get();
+        }
+    }
+
+    // 경쟁이 생기면 스레드마다 다른 셀에 나눠 더하고(LongAdder), 합계를 읽을 때 모든 셀을 더한다.
+    public static class StripedAccumulator implements SumAccumulator {
+        private final LongAdder total = new LongAdder();
+
+        @Override
+        public void add(long value) {
+            total.add(value);
+        }
+
+        @Override
+        public long total() {
+            return total.sum();
+        }
+    }
+
+    // 스레드마다 자신만의 셀에 동기화 없이 더하고, 합계를 읽을 때 모든 셀을 합친다.
+    // 모든 add 호출이 끝난 다음(ex. 스트림의 최종 연산 이후)에 읽은 합계만 정확하다.
+    public static class ThreadLocalAccumulator implements SumAccumulator {
+        private final Queue<long[]> cells = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<long[]> cell = ThreadLocal.withInitial(() -> {
+            long[] newCell = new long[1];
+            cells.add(newCell);
+            return newCell;
+        });
+
+        @Override
+        public void add(long value) {
+            cell.get()[0] += value;
+        }
+
+        @Override
+        public long total() {
+            long total = 0;
+            for (long[] c : cells) {
+                total += c[0];
+            }
+            return total;
+        }
     }
 
 }
@@ -0,0 +1,179 @@
+package chapter07;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+import chapter07.forkjoin.AdaptiveForkJoinSumCalculator;
+import chapter07.forkjoin.ForkJoinLongSumCompleter;
+import chapter07.forkjoin.ForkJoinSumCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 모든 합계 전략을 크기(size)와 병렬 수준(parallelism)별로 측정한다.
+ * 병렬 스트림과 포크/조인 태스크는 parallelism 크기의 전용 ForkJoinPool 안에서 실행된다.
+ * (ForkJoinPool 안에서 시작한 병렬 스트림은 공통 풀 대신 그 풀을 사용한다.)
+ * main을 실행하면 코어 수까지 parallelism을 늘려가며 측정한 다음 전략별 속도 향상을 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 5)
+public class SumStrategyBenchmark {
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    private long size;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long iterativeSum() {
+        return ParallelStreams.iterativeSum(size);
+    }
+
+    @Benchmark
+    public long sequentialSum() {
+        return ParallelStreams.sequentialSum(size);
+    }
+
+    @Benchmark
+    public long parallelSum() {
+        return inPool(() -> ParallelStreams.parallelSum(size));
+    }
+
+    @Benchmark
+    public long splittableParallelSum() {
+        return inPool(() -> ParallelStreams.splittableParallelSum(size));
+    }
+
+    @Benchmark
+    public long rangedSum() {
+        return ParallelStreams.rangedSum(size);
+    }
+
+    @Benchmark
+    public long parallelRangedSum() {
+        return inPool(() -> ParallelStreams.parallelRangedSum(size));
+    }
+
+    @Benchmark
+    public long forkJoinSum() {
+        return ForkJoinSumCalculator.forkJoinSum(size, pool);
+    }
+
+    @Benchmark
+    public long adaptiveForkJoinSum() { // forkJoinSum과 같이 배열 생성을 측정에 포함한다.
+        return AdaptiveForkJoinSumCalculator.sum(LongStream.rangeClosed(1, size).toArray(), pool);
+    }
+
+    @Benchmark
+    public long countedCompleterSum() {
+        return ForkJoinLongSumCompleter.rangeSum(1, size, pool);
+    }
+
+    @Benchmark
+    public long sideEffectSum() {
+        return ParallelStreams.sideEffectSum(size);
+    }
+
+    @Benchmark
+    public long sideEffectParallelSum() { // 경쟁 상태 때문에 결과는 틀리지만 공유 상태의 비용을 보여준다.
+        return inPool(() -> ParallelStreams.sideEffectParallelSum(size));
+    }
+
+    @Benchmark
+    public long atomicParallelSum() {
+        return inPool(() -> ParallelStreams.atomicParallelSum(size));
+    }
+
+    @Benchmark
+    public long stripedParallelSum() {
+        return inPool(() -> ParallelStreams.stripedParallelSum(size));
+    }
+
+    @Benchmark
+    public long threadLocalParallelSum() {
+        return inPool(() -> ParallelStreams.threadLocalParallelSum(size));
+    }
+
+    private long inPool(LongSupplier sum) {
+        return pool.submit(sum::getAsLong).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<String> levels = new ArrayList<>();
+        for (int p = 1; p < Runtime.getRuntime().availableProcessors(); p *= 2) {
+            levels.add(String.valueOf(p));
+        }
+        levels.add(String.valueOf(Runtime.getRuntime().availableProcessors()));
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(SumStrategyBenchmark.class.getSimpleName())
+                .param("parallelism", levels.toArray(new String[0]))
+                .build()).run();
+
+        printScalingReport(results);
+    }
+
+    /**
+     * 전략과 크기마다 parallelism = 1 대비 속도 향상을 출력한다.
+     */
+    private static void printScalingReport(Collection<RunResult> results) {
+        // benchmark, size -> (parallelism -> 평균 시간)
+        Map<String, Map<Integer, Double>> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1) + " size=" + result.getParams().getParam("size");
+            scores.computeIfAbsent(key, k -> new TreeMap<>())
+                    .put(Integer.parseInt(result.getParams().getParam("parallelism")), result.getPrimaryResult().getScore());
+        }
+
+        System.out.println("benchmark,parallelism,avg_us,speedup");
+        for (Map.Entry<String, Map<Integer, Double>> entry : scores.entrySet()) {
+            Double baseline = entry.getValue().get(1);
+            for (Map.Entry<Integer, Double> score : entry.getValue().entrySet()) {
+                System.out.println(String.format(Locale.ROOT, "%s,%d,%.3f,%.2f", entry.getKey(), score.getKey(),
+                        score.getValue(), baseline == null ? Double.NaN : baseline / score.getValue()));
+            }
+        }
+    }
+
+}
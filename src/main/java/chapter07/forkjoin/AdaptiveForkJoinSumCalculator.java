@@ -0,0 +1,103 @@
+package chapter07.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.LongStream;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * 고정된 THRESHOLD 대신 현재 스레드의 작업 큐 상태를 보고 분할 여부를 결정하는 ForkJoinSumCalculator.
+ * 다른 워커가 훔쳐갈 여분의 태스크가 충분하면 더 이상 분할하지 않고 순차적으로 계산한다.
+ */
+public class AdaptiveForkJoinSumCalculator extends RecursiveTask<Long> {
+
+    // 큐에 남아있는 여분의 태스크가 이 값을 넘으면 분할을 멈춘다. (다른 워커가 훔쳐갈 일감이 충분함)
+    public static final int SURPLUS_THRESHOLD = 3;
+
+    // 태스크 생성 비용보다 계산 비용이 작아지는 최소 크기 (이 값 이하로는 절대 분할하지 않는다.)
+    public static final int MIN_LEAF_SIZE = 1 << 12;
+
+    private final long[] numbers;
+    private final int start;
+    private final int end;
+    private final int minSplitSize; // 풀의 병렬 수준으로 계산한, 큐 상태와 관계없이 분할할 크기
+
+    public AdaptiveForkJoinSumCalculator(long[] numbers) {
+        this(numbers, FORK_JOIN_POOL.getParallelism());
+    }
+
+    public AdaptiveForkJoinSumCalculator(long[] numbers, int parallelism) {
+        // 워커마다 최소 네 개의 태스크가 돌아가도록 초기 분할 크기를 정한다.
+        this(numbers, 0, numbers.length, Math.max(MIN_LEAF_SIZE, numbers.length / (parallelism * 4)));
+    }
+
+    private AdaptiveForkJoinSumCalculator(long[] numbers, int start, int end, int minSplitSize) {
+        this.numbers = numbers;
+        this.start = start;
+        this.end = end;
+        this.minSplitSize = minSplitSize;
+    }
+
+    @Override
+    protected Long compute() {
+        int length = end - start;
+        if (!shouldSplit(length)) {
+            return computeSequentially(numbers, start, end);
+        }
+
+        int middle = start + length / 2;
+        AdaptiveForkJoinSumCalculator leftTask = new AdaptiveForkJoinSumCalculator(numbers, start, middle, minSplitSize);
+        leftTask.fork();
+        AdaptiveForkJoinSumCalculator rightTask = new AdaptiveForkJoinSumCalculator(numbers, middle, end, minSplitSize);
+        long rightResult = rightTask.compute();
+        long leftResult = leftTask.join();
+        return leftResult + rightResult;
+    }
+
+    /**
+     * 1. 최소 크기 이하면 분할하지 않는다.
+     * 2. 병렬 수준에 맞춘 초기 분할 크기보다 크면 무조건 분할한다.
+     * 3. 그 사이라면 현재 워커의 큐에 여분의 태스크가 부족할 때만 분할한다.
+     */
+    private boolean shouldSplit(int length) {
+        if (length <= MIN_LEAF_SIZE) {
+            return false;
+        }
+        if (length > minSplitSize) {
+            return true;
+        }
+        return getSurplusQueuedTaskCount() <= SURPLUS_THRESHOLD;
+    }
+
+    /**
+     * 네 개의 누적 변수로 루프를 펼쳐 덧셈 사이의 데이터 의존성을 끊는다.
+     * (CPU가 여러 덧셈을 동시에 실행할 수 있다.)
+     */
+    static long computeSequentially(long[] numbers, int start, int end) {
+        long sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = start;
+        for (int limit = end - 3; i < limit; i += 4) {
+            sum0 += numbers[i];
+            sum1 += numbers[i + 1];
+            sum2 += numbers[i + 2];
+            sum3 += numbers[i + 3];
+        }
+        for (; i < end; i++) { // 나머지 요소
+            sum0 += numbers[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    public static long forkJoinSum(long n) {
+        long[] numbers = LongStream.rangeClosed(1, n).toArray();
+        return sum(numbers, FORK_JOIN_POOL);
+    }
+
+    public static long sum(long[] numbers, ForkJoinPool pool) {
+        ForkJoinTask<Long> task = new AdaptiveForkJoinSumCalculator(numbers, pool.getParallelism());
+        return pool.invoke(task);
+    }
+
+}
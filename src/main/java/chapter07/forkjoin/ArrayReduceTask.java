@@ -0,0 +1,85 @@
+package chapter07.forkjoin;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 배열 리듀싱 태스크가 공유하는 분할/스케줄링 코어.
+ * 배열의 [start, end) 구간을 threshold 이하가 될 때까지 절반씩 포크하고,
+ * 마지막으로 완료된 서브태스크가 부모 방향으로 올라가며 부분 결과를 합친다.
+ * 서브클래스는 부분 결과를 자신의 필드에 저장하므로 결과 타입에 따라 박싱이 필요 없다.
+ *
+ * @param <T> 구체 태스크 타입 (서브태스크의 부분 결과에 타입 안전하게 접근하기 위함)
+ */
+abstract class ArrayReduceTask<T extends ArrayReduceTask<T>> extends CountedCompleter<Void> {
+
+    // 서브태스크가 이보다 작아지면 생성 비용이 계산 비용보다 커진다.
+    static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    final int start;
+    final int end;
+    final int threshold;
+
+    private T forks; // 이 태스크가 포크한 서브태스크 리스트 (가까운 오른쪽 구간부터)
+    private final T next; // 형제 서브태스크
+
+    ArrayReduceTask(ArrayReduceTask<T> parent, int start, int end, int threshold, T next) {
+        super(parent);
+        this.start = start;
+        this.end = end;
+        this.threshold = threshold;
+        this.next = next;
+    }
+
+    /**
+     * [start, end) 구간을 처리할 서브태스크를 생성한다.
+     */
+    abstract T newSubtask(int start, int end, T next);
+
+    /**
+     * 더 분할할 수 없는 구간의 결과를 순차적으로 계산해 이 태스크의 부분 결과로 저장한다.
+     */
+    abstract void computeLeaf(int start, int end);
+
+    /**
+     * 오른쪽 구간을 처리한 서브태스크의 부분 결과를 이 태스크의 부분 결과에 합친다.
+     */
+    abstract void merge(T rightSubtask);
+
+    @Override
+    public final void compute() {
+        int l = start;
+        int h = end;
+        while (h - l > threshold) {
+            int mid = (l + h) >>> 1;
+            addToPendingCount(1);
+            forks = newSubtask(mid, h, forks);
+            forks.fork();
+            h = mid;
+        }
+
+        computeLeaf(l, h);
+
+        // 왼쪽 구간의 결과에 오른쪽 서브태스크의 결과를 순서대로 합치므로 결합 법칙만 성립하면 된다.
+        for (CountedCompleter<?> c = firstComplete(); c != null; c = c.nextComplete()) {
+            @SuppressWarnings("unchecked")
+            T task = (T) c;
+            for (T sub = ((ArrayReduceTask<T>) task).forks; sub != null; sub = ((ArrayReduceTask<T>) sub).next) {
+                task.merge(sub);
+            }
+        }
+    }
+
+    /**
+     * 워커마다 여러 개의 태스크가 돌아가도록 배열 길이와 풀의 병렬 수준으로 분할 기준값을 정한다.
+     */
+    static int threshold(int length, ForkJoinPool pool) {
+        return Math.max(MIN_CHUNK_SIZE, length / (pool.getParallelism() << 3));
+    }
+
+    static <T extends ArrayReduceTask<T>> T invoke(ForkJoinPool pool, T root) {
+        pool.invoke(root);
+        return root;
+    }
+
+}
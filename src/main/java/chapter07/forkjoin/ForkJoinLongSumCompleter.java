@@ -0,0 +1,121 @@
+package chapter07.forkjoin;
+
+import java.math.BigInteger;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * RecursiveTask<Long> 대신 CountedCompleter를 상속받아 부분합을 long 필드에 저장하는 합계 태스크.
+ * 서브태스크의 결과를 join으로 기다리지 않고, 마지막으로 끝난 서브태스크가 부모의 합계를 완성한다.
+ * 배열이 없으면 [from, to] 범위의 숫자를 직접 생성하면서 더하므로 배열을 만들 필요가 없다.
+ * 구간은 양 끝을 포함하므로 to가 Long.MAX_VALUE여도 넘치지 않는다.
+ */
+public class ForkJoinLongSumCompleter extends CountedCompleter<Void> {
+
+    public static final long THRESHOLD = 10_000;
+
+    private final long[] numbers; // null이면 인덱스 자체를 더할 숫자로 사용한다.
+    private final long start;
+    private final long end; // 포함
+
+    private ForkJoinLongSumCompleter forks; // 이 태스크가 포크한 서브태스크 리스트
+    private final ForkJoinLongSumCompleter next; // 형제 서브태스크
+    private long sum; // 박싱 없이 부분합을 저장
+
+    private ForkJoinLongSumCompleter(ForkJoinLongSumCompleter parent, long[] numbers, long start, long end,
+                                     ForkJoinLongSumCompleter next) {
+        super(parent);
+        this.numbers = numbers;
+        this.start = start;
+        this.end = end;
+        this.next = next;
+    }
+
+    @Override
+    public void compute() {
+        long l = start;
+        long h = end;
+
+        // 1. 오른쪽 절반을 서브태스크로 포크하고 왼쪽 절반은 현재 태스크에서 계속 분할한다.
+        // h - l은 부호 없는 값으로 다뤄서 음수 범위나 long 전체 범위에서도 올바른 중간값을 구한다.
+        while (Long.compareUnsigned(h - l, THRESHOLD) >= 0) {
+            long mid = l + ((h - l) >>> 1);
+            addToPendingCount(1); // 완료를 기다려야 할 서브태스크 수를 증가
+            (forks = new ForkJoinLongSumCompleter(this, numbers, mid + 1, h, forks)).fork();
+            h = mid;
+        }
+
+        // 2. 더 분할할 수 없는 나머지 구간은 순차적으로 계산한다.
+        sum = numbers != null ? sumArray(numbers, (int) l, (int) h) : sumRange(l, h);
+
+        // 3. 완료된 태스크부터 부모 방향으로 올라가며 서브태스크의 부분합을 합친다.
+        for (CountedCompleter<?> c = firstComplete(); c != null; c = c.nextComplete()) {
+            ForkJoinLongSumCompleter task = (ForkJoinLongSumCompleter) c;
+            for (ForkJoinLongSumCompleter sub = task.forks; sub != null; sub = sub.next) {
+                task.sum += sub.sum;
+            }
+        }
+    }
+
+    private static long sumArray(long[] numbers, int start, int end) {
+        long sum = 0;
+        for (int i = start; i <= end; i++) {
+            sum += numbers[i];
+        }
+        return sum;
+    }
+
+    private static long sumRange(long start, long end) {
+        long sum = 0;
+        for (long i = start; ; i++) { // i <= end로 검사하면 end가 Long.MAX_VALUE일 때 끝나지 않는다.
+            sum += i;
+            if (i == end) {
+                return sum;
+            }
+        }
+    }
+
+    /**
+     * 합계가 long 범위를 넘으면 LongStream.sum()처럼 오버플로된 값을 반환한다.
+     */
+    public static long sum(long[] numbers) {
+        if (numbers.length == 0) {
+            return 0;
+        }
+        return invoke(FORK_JOIN_POOL, new ForkJoinLongSumCompleter(null, numbers, 0, numbers.length - 1, null));
+    }
+
+    /**
+     * from부터 to까지(to 포함)의 정수를 배열을 만들지 않고 더한다.
+     *
+     * @throws ArithmeticException 합계가 long 범위를 넘는 경우
+     */
+    public static long rangeSum(long from, long to) {
+        return rangeSum(from, to, FORK_JOIN_POOL);
+    }
+
+    public static long rangeSum(long from, long to, ForkJoinPool pool) {
+        if (from > to) {
+            return 0;
+        }
+        // 등차수열의 합 공식으로 먼저 오버플로를 검사한다. (Math.addExact처럼 조용히 틀린 값을 반환하지 않음)
+        BigInteger count = BigInteger.valueOf(to).subtract(BigInteger.valueOf(from)).add(BigInteger.ONE);
+        BigInteger total = BigInteger.valueOf(from).add(BigInteger.valueOf(to)).multiply(count).shiftRight(1);
+        if (total.bitLength() > 63) {
+            throw new ArithmeticException("long overflow: sum of [" + from + ", " + to + "]");
+        }
+        return invoke(pool, new ForkJoinLongSumCompleter(null, null, from, to, null));
+    }
+
+    private static long invoke(ForkJoinPool pool, ForkJoinLongSumCompleter root) {
+        pool.invoke(root);
+        return root.sum; // 루트 태스크가 완료되면 모든 부분합이 루트에 모여 있다.
+    }
+
+    public static long forkJoinSum(long n) {
+        return rangeSum(1, n);
+    }
+
+}
@@ -0,0 +1,184 @@
+package chapter07.forkjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * 작업 종류마다 격리된 ForkJoinPool을 이름으로 등록하고 조회한다.
+ * 풀마다 병렬 수준, 비동기 모드, 워커 스레드 이름, 처리되지 않은 예외 핸들러를 지정할 수 있고,
+ * 워크 스틸링 횟수와 큐에 쌓인 작업 수 같은 통계로 풀의 크기를 조정할 수 있다.
+ */
+public final class ForkJoinPoolRegistry {
+
+    public static final String DEFAULT_POOL = "default";
+
+    private static final ConcurrentMap<String, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    // 기본 풀은 레지스트리가 직접 만들고 소유하므로 다른 코드가 같은 이름으로 등록하거나 종료할 수 없다.
+    static {
+        POOLS.put(DEFAULT_POOL, new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                namedThreadFactory(DEFAULT_POOL), null, false));
+    }
+
+    private ForkJoinPoolRegistry() {
+    }
+
+    public static void main(String[] args) {
+        register("metrics", 2, false);
+        long sum = runIn("metrics", () -> LongStream.rangeClosed(1, 10_000_000L).parallel().sum());
+        System.out.println("Sum computed in metrics pool: " + sum);
+        stats().forEach(System.out::println);
+    }
+
+    public static ForkJoinPool register(String name, int parallelism, boolean asyncMode) {
+        return register(name, parallelism, asyncMode, (thread, e) -> {
+            System.err.println("Uncaught exception in " + thread.getName());
+            e.printStackTrace();
+        });
+    }
+
+    /**
+     * @param asyncMode true면 포크했지만 join하지 않는 이벤트 스타일 태스크에 적합한 FIFO 순서로 처리한다.
+     * @throws IllegalArgumentException 기본 풀의 이름(DEFAULT_POOL)이면
+     * @throws IllegalStateException 같은 이름의 풀이 이미 등록되어 있으면
+     */
+    public static ForkJoinPool register(String name, int parallelism, boolean asyncMode,
+                                        Thread.UncaughtExceptionHandler handler) {
+        requireNotDefault(name);
+        ForkJoinPool pool = new ForkJoinPool(parallelism, namedThreadFactory(name), handler, asyncMode);
+        if (POOLS.putIfAbsent(name, pool) != null) {
+            pool.shutdown();
+            throw new IllegalStateException("ForkJoinPool already registered: " + name);
+        }
+        return pool;
+    }
+
+    /**
+     * @throws IllegalArgumentException 등록되지 않은 이름이면
+     */
+    public static ForkJoinPool get(String name) {
+        ForkJoinPool pool = POOLS.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown ForkJoinPool: " + name);
+        }
+        return pool;
+    }
+
+    /**
+     * 병렬 스트림 파이프라인을 지정한 풀에서 실행한다.
+     * ForkJoinPool의 워커 스레드에서 시작한 병렬 스트림은 공통 풀 대신 그 워커의 풀을 사용한다.
+     */
+    public static <T> T runIn(String name, Supplier<T> pipeline) {
+        return get(name).submit(pipeline::get).join();
+    }
+
+    /**
+     * @throws IllegalArgumentException 기본 풀의 이름(DEFAULT_POOL)이면
+     */
+    public static void shutdown(String name) {
+        requireNotDefault(name);
+        ForkJoinPool pool = POOLS.remove(name);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public static List<PoolStats> stats() {
+        List<PoolStats> stats = new ArrayList<>();
+        for (Map.Entry<String, ForkJoinPool> entry : POOLS.entrySet()) {
+            stats.add(new PoolStats(entry.getKey(), entry.getValue()));
+        }
+        return stats;
+    }
+
+    private static void requireNotDefault(String name) {
+        if (DEFAULT_POOL.equals(name)) {
+            throw new IllegalArgumentException("The built-in ForkJoinPool cannot be registered or shut down: " + name);
+        }
+    }
+
+    // 워커 스레드 이름에 풀 이름을 붙여서 스레드 덤프와 프로파일러에서 구분할 수 있게 한다.
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-worker-" + counter.incrementAndGet());
+            return thread;
+        };
+    }
+
+    /**
+     * 풀의 상태를 측정한 시점의 스냅샷 (ForkJoinPool의 통계는 근삿값이다.)
+     */
+    public static class PoolStats {
+
+        private final String name;
+        private final int parallelism;
+        private final int poolSize;
+        private final int activeThreads;
+        private final int runningThreads;
+        private final long stealCount;
+        private final int queuedSubmissions;
+        private final long queuedTasks;
+
+        PoolStats(String name, ForkJoinPool pool) {
+            this.name = name;
+            this.parallelism = pool.getParallelism();
+            this.poolSize = pool.getPoolSize();
+            this.activeThreads = pool.getActiveThreadCount();
+            this.runningThreads = pool.getRunningThreadCount();
+            this.stealCount = pool.getStealCount();
+            this.queuedSubmissions = pool.getQueuedSubmissionCount();
+            this.queuedTasks = pool.getQueuedTaskCount();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+
+        public int getRunningThreads() {
+            return runningThreads;
+        }
+
+        public long getStealCount() {
+            return stealCount;
+        }
+
+        public int getQueuedSubmissions() {
+            return queuedSubmissions;
+        }
+
+        public long getQueuedTasks() {
+            return queuedTasks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{name=%s, parallelism=%d, poolSize=%d, active=%d, running=%d, steals=%d, "
+                            + "queuedSubmissions=%d, queuedTasks=%d}",
+                    name, parallelism, poolSize, activeThreads, runningThreads, stealCount, queuedSubmissions, queuedTasks);
+        }
+
+    }
+
+}
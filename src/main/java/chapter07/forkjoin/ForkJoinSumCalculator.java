@@ -1,5 +1,6 @@
 package chapter07.forkjoin;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
 import java.util.stream.LongStream;
@@ -63,9 +64,13 @@ public class ForkJoinSumCalculator extends RecursiveTask<Long> {
     }
 
     public static long forkJoinSum(long n) {
+        return forkJoinSum(n, FORK_JOIN_POOL);
+    }
+
+    public static long forkJoinSum(long n, ForkJoinPool pool) {
         long[] numbers = LongStream.rangeClosed(1, n).toArray(); // n까지의 자연수를 포함하는 배열을 생성
         ForkJoinTask<Long> task = new ForkJoinSumCalculator(numbers);
-        return FORK_JOIN_POOL.invoke(task);
+        return pool.invoke(task);
     }
 
 }
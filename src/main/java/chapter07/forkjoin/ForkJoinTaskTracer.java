@@ -0,0 +1,263 @@
+package chapter07.forkjoin;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 포크/조인 태스크의 실행을 기록해서 과도한 분할, 부하 불균형, join 대기 중 어느 것이 느린 원인인지 보여준다.
+ * 워커 스레드마다 자신의 버퍼에 기록하므로 기록할 때 스레드 간 경쟁이 없고,
+ * sampleRate로 일부 태스크만 기록해서 측정 오버헤드를 줄일 수 있다.
+ * 버퍼는 ThreadLocal이 아니라 트레이서가 소유하므로 트레이서를 버리거나 clear()를 호출하면 함께 해제된다.
+ */
+public class ForkJoinTaskTracer {
+
+    private final ForkJoinPool pool;
+    private final double sampleRate;
+    private final ConcurrentMap<Thread, List<TaskEvent>> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * @param pool 추적할 태스크를 실행하는 풀 (기록이 없는 워커를 보고하는 데 사용)
+     * @param sampleRate 기록할 태스크의 비율 (0 초과 1 이하)
+     */
+    public ForkJoinTaskTracer(ForkJoinPool pool, double sampleRate) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be in (0, 1]: " + sampleRate);
+        }
+        this.pool = pool;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 태스크를 만들 때 호출해서 이 태스크를 기록할지 결정한다.
+     */
+    boolean sample() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    void record(TaskEvent event) {
+        // 각 리스트는 키인 스레드만 수정하므로 리스트 자체는 동기화할 필요가 없다.
+        buffers.computeIfAbsent(Thread.currentThread(), thread -> new ArrayList<>()).add(event);
+    }
+
+    /**
+     * 기록한 이벤트를 모두 버린다. 보고서를 출력한 다음 같은 트레이서를 다시 사용할 때 호출한다.
+     */
+    public void clear() {
+        buffers.clear();
+    }
+
+    /**
+     * 모든 태스크가 완료된 다음에 호출해야 한다.
+     */
+    public List<TaskEvent> events() {
+        List<TaskEvent> events = new ArrayList<>();
+        for (List<TaskEvent> b : buffers.values()) {
+            events.addAll(b);
+        }
+        events.sort((e1, e2) -> Long.compare(e1.getStartNanos(), e2.getStartNanos()));
+        return events;
+    }
+
+    /**
+     * 깊이별 태스크 수, 리프 태스크의 실행 시간 분포, 워커별 유휴 시간을 요약한다.
+     * 샘플링하면 태스크 수와 워커의 작업 시간을 sampleRate로 나눈 추정값을 보고한다.
+     * 기록이 하나도 없는 워커도 보고한다. 모든 태스크를 기록했다면 그 워커는 전체 구간 동안 쉬었고,
+     * 샘플링했다면 쉬었는지 기록되지 않았을 뿐인지 구분할 수 없으므로 데이터가 불완전하다고 표시한다.
+     */
+    public String summary() {
+        List<TaskEvent> events = events();
+        if (events.isEmpty()) {
+            return "No tasks recorded";
+        }
+
+        Map<Integer, Integer> tasksPerDepth = new TreeMap<>();
+        List<Long> leafDurations = new ArrayList<>();
+        Map<String, Long> busyPerWorker = new TreeMap<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        long stolen = 0;
+        long joinWait = 0;
+        for (TaskEvent event : events) {
+            tasksPerDepth.merge(event.getDepth(), 1, Integer::sum);
+            first = Math.min(first, event.getStartNanos());
+            last = Math.max(last, event.getEndNanos());
+            stolen += event.isStolen() ? 1 : 0;
+            joinWait += event.getJoinWaitNanos();
+            if (event.isLeaf()) { // 실제 계산은 리프 태스크에서만 일어난다.
+                leafDurations.add(event.durationNanos());
+                busyPerWorker.merge(event.getThreadName(), event.durationNanos(), Long::sum);
+            }
+        }
+        Collections.sort(leafDurations);
+        long span = last - first;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "sampled tasks=%d (rate=%.3f), stolen=%d, total join wait=%.3f ms, span=%.3f ms%n",
+                events.size(), sampleRate, stolen, joinWait / 1e6, span / 1e6));
+        sb.append("tasks per depth (estimated):");
+        tasksPerDepth.forEach((depth, count) -> sb.append(' ').append(depth).append('=').append(Math.round(count / sampleRate)));
+        sb.append(System.lineSeparator());
+        if (!leafDurations.isEmpty()) {
+            sb.append(String.format(Locale.ROOT, "leaf time us: min=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    leafDurations.get(0) / 1e3, percentile(leafDurations, 0.5) / 1e3, percentile(leafDurations, 0.9) / 1e3,
+                    percentile(leafDurations, 0.99) / 1e3, leafDurations.get(leafDurations.size() - 1) / 1e3));
+        }
+        busyPerWorker.forEach((worker, busy) -> {
+            double estimatedBusy = Math.min(span, busy / sampleRate);
+            sb.append(String.format(Locale.ROOT, "%s: busy=%.3f ms idle=%.3f ms%n", worker, estimatedBusy / 1e6, (span - estimatedBusy) / 1e6));
+        });
+
+        // 풀은 워커 목록을 제공하지 않으므로 풀의 크기와 기록을 남긴 워커 수를 비교한다.
+        int recordedWorkers = 0;
+        for (Thread thread : buffers.keySet()) {
+            if (thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+                recordedWorkers++;
+            }
+        }
+        int silentWorkers = Math.max(0, pool.getPoolSize() - recordedWorkers);
+        if (silentWorkers > 0) {
+            if (sampleRate >= 1) {
+                sb.append(String.format(Locale.ROOT, "%d other worker(s): busy=0.000 ms idle=%.3f ms%n", silentWorkers, span / 1e6));
+            } else {
+                sb.append(String.format(Locale.ROOT, "%d other worker(s): no sampled tasks, idle time unknown (incomplete data)%n",
+                        silentWorkers));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+
+    /**
+     * chrome://tracing이나 Perfetto에서 열 수 있는 Trace Event Format(JSON)으로 저장한다.
+     * 태스크는 워커 스레드별 타임라인의 구간으로, 깊이는 색상 대신 이름으로 구분된다.
+     */
+    public void writeChromeTrace(Path file) throws IOException {
+        List<TaskEvent> events = events();
+        long origin = events.isEmpty() ? 0 : events.get(0).getStartNanos();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\"traceEvents\":[\n");
+            for (int i = 0; i < events.size(); i++) {
+                TaskEvent e = events.get(i);
+                out.write(String.format(Locale.ROOT,
+                        "{\"name\":\"%s depth=%d\",\"ph\":\"X\",\"pid\":1,\"tid\":\"%s\",\"ts\":%.3f,\"dur\":%.3f,"
+                                + "\"args\":{\"start\":%d,\"size\":%d,\"stolen\":%b,\"queueNs\":%d,\"joinWaitNs\":%d}}%s\n",
+                        e.isLeaf() ? "leaf" : "split", e.getDepth(), escapeJson(e.getThreadName()),
+                        (e.getStartNanos() - origin) / 1e3, e.durationNanos() / 1e3,
+                        e.getStart(), e.getSize(), e.isStolen(), e.getStartNanos() - e.getForkNanos(), e.getJoinWaitNanos(),
+                        i < events.size() - 1 ? "," : ""));
+            }
+            out.write("]}\n");
+        }
+    }
+
+    // 스레드 이름은 사용자가 정할 수 있으므로 JSON 문자열 안에서 특별한 의미가 있는 문자를 이스케이프한다.
+    private static String escapeJson(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) { // 제어 문자
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 태스크 하나의 실행 기록
+     */
+    public static class TaskEvent {
+
+        private final int depth;
+        private final int start; // 처리한 배열 구간
+        private final int size;
+        private final String threadName; // 실행한 스레드
+        private final boolean stolen; // 포크한 스레드와 다른 스레드가 실행함
+        private final boolean leaf;
+        private final long forkNanos; // 큐에 들어간 시각
+        private final long startNanos;
+        private final long endNanos;
+        private final long joinWaitNanos; // 포크한 서브태스크의 join을 기다린 시간
+
+        TaskEvent(int depth, int start, int size, String threadName, boolean stolen, boolean leaf,
+                  long forkNanos, long startNanos, long endNanos, long joinWaitNanos) {
+            this.depth = depth;
+            this.start = start;
+            this.size = size;
+            this.threadName = threadName;
+            this.stolen = stolen;
+            this.leaf = leaf;
+            this.forkNanos = forkNanos;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.joinWaitNanos = joinWaitNanos;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public boolean isStolen() {
+            return stolen;
+        }
+
+        public boolean isLeaf() {
+            return leaf;
+        }
+
+        public long getForkNanos() {
+            return forkNanos;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public long getJoinWaitNanos() {
+            return joinWaitNanos;
+        }
+
+        public long durationNanos() {
+            return endNanos - startNanos;
+        }
+
+    }
+
+}
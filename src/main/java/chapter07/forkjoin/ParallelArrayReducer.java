@@ -0,0 +1,327 @@
+package chapter07.forkjoin;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * ForkJoinSumCalculator의 분할 정복을 합계 이외의 결합 법칙을 만족하는 리듀싱 연산으로 일반화한다.
+ * 모든 연산은 ArrayReduceTask의 분할/스케줄링 코어를 공유하며 FORK_JOIN_POOL에서 실행된다.
+ * 기본형 배열은 부분 결과를 기본형 필드에 저장하므로 Stream.reduce와 달리 박싱이 일어나지 않는다.
+ */
+public final class ParallelArrayReducer {
+
+    private ParallelArrayReducer() {
+    }
+
+    public static void main(String[] args) {
+        int[] metrics = IntStream.range(0, 1_000_000).map(i -> (i * 31) % 1000).toArray();
+
+        System.out.println("min: " + reduce(metrics, Integer.MAX_VALUE, Math::min));
+        System.out.println("max: " + reduce(metrics, Integer.MIN_VALUE, Math::max));
+        System.out.println("sum of squares: " + mapReduce(metrics, i -> (long) i * i, 0L, Long::sum));
+        System.out.println("histogram: " + Arrays.toString(collect(metrics,
+                () -> new long[10],
+                (histogram, value) -> histogram[value / 100]++,
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        left[i] += right[i];
+                    }
+                })));
+    }
+
+    public static int reduce(int[] array, int identity, IntBinaryOperator op) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new IntReduceTask(array, identity, op, FORK_JOIN_POOL)).result;
+    }
+
+    public static long reduce(long[] array, long identity, LongBinaryOperator op) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new LongReduceTask(array, identity, op, FORK_JOIN_POOL)).result;
+    }
+
+    public static double reduce(double[] array, double identity, DoubleBinaryOperator op) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new DoubleReduceTask(array, identity, op, FORK_JOIN_POOL)).result;
+    }
+
+    /**
+     * int 요소를 long으로 변환하면서 리듀싱한다. (ex. 오버플로 없는 제곱합)
+     */
+    public static long mapReduce(int[] array, IntToLongFunction mapper, long identity, LongBinaryOperator op) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new IntToLongReduceTask(array, mapper, identity, op, FORK_JOIN_POOL)).result;
+    }
+
+    /**
+     * 객체 배열을 리듀싱한다. identity는 accumulator와 combiner의 항등원이어야 한다.
+     */
+    public static <T, R> R reduce(T[] array, R identity, BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new ObjReduceTask<>(array, identity, accumulator, combiner, FORK_JOIN_POOL)).result;
+    }
+
+    /**
+     * 서브태스크마다 supplier로 만든 가변 컨테이너에 요소를 누적한 다음 combiner로 합친다. (ex. 히스토그램)
+     */
+    public static <R> R collect(int[] array, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return ArrayReduceTask.invoke(FORK_JOIN_POOL, new IntCollectTask<>(array, supplier, accumulator, combiner, FORK_JOIN_POOL)).result;
+    }
+
+    static final class IntReduceTask extends ArrayReduceTask<IntReduceTask> {
+
+        private final int[] array;
+        private final int identity;
+        private final IntBinaryOperator op;
+        private int result;
+
+        IntReduceTask(int[] array, int identity, IntBinaryOperator op, ForkJoinPool pool) {
+            this(null, array, identity, op, 0, array.length, ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private IntReduceTask(IntReduceTask parent, int[] array, int identity, IntBinaryOperator op,
+                              int start, int end, int threshold, IntReduceTask next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        IntReduceTask newSubtask(int start, int end, IntReduceTask next) {
+            return new IntReduceTask(this, array, identity, op, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            int r = identity;
+            for (int i = start; i < end; i++) {
+                r = op.applyAsInt(r, array[i]);
+            }
+            result = r;
+        }
+
+        @Override
+        void merge(IntReduceTask rightSubtask) {
+            result = op.applyAsInt(result, rightSubtask.result);
+        }
+
+    }
+
+    static final class LongReduceTask extends ArrayReduceTask<LongReduceTask> {
+
+        private final long[] array;
+        private final long identity;
+        private final LongBinaryOperator op;
+        private long result;
+
+        LongReduceTask(long[] array, long identity, LongBinaryOperator op, ForkJoinPool pool) {
+            this(null, array, identity, op, 0, array.length, ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private LongReduceTask(LongReduceTask parent, long[] array, long identity, LongBinaryOperator op,
+                               int start, int end, int threshold, LongReduceTask next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        LongReduceTask newSubtask(int start, int end, LongReduceTask next) {
+            return new LongReduceTask(this, array, identity, op, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            long r = identity;
+            for (int i = start; i < end; i++) {
+                r = op.applyAsLong(r, array[i]);
+            }
+            result = r;
+        }
+
+        @Override
+        void merge(LongReduceTask rightSubtask) {
+            result = op.applyAsLong(result, rightSubtask.result);
+        }
+
+    }
+
+    static final class DoubleReduceTask extends ArrayReduceTask<DoubleReduceTask> {
+
+        private final double[] array;
+        private final double identity;
+        private final DoubleBinaryOperator op;
+        private double result;
+
+        DoubleReduceTask(double[] array, double identity, DoubleBinaryOperator op, ForkJoinPool pool) {
+            this(null, array, identity, op, 0, array.length, ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private DoubleReduceTask(DoubleReduceTask parent, double[] array, double identity, DoubleBinaryOperator op,
+                                 int start, int end, int threshold, DoubleReduceTask next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        DoubleReduceTask newSubtask(int start, int end, DoubleReduceTask next) {
+            return new DoubleReduceTask(this, array, identity, op, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            double r = identity;
+            for (int i = start; i < end; i++) {
+                r = op.applyAsDouble(r, array[i]);
+            }
+            result = r;
+        }
+
+        @Override
+        void merge(DoubleReduceTask rightSubtask) {
+            result = op.applyAsDouble(result, rightSubtask.result);
+        }
+
+    }
+
+    static final class IntToLongReduceTask extends ArrayReduceTask<IntToLongReduceTask> {
+
+        private final int[] array;
+        private final IntToLongFunction mapper;
+        private final long identity;
+        private final LongBinaryOperator op;
+        private long result;
+
+        IntToLongReduceTask(int[] array, IntToLongFunction mapper, long identity, LongBinaryOperator op, ForkJoinPool pool) {
+            this(null, array, mapper, identity, op, 0, array.length, ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private IntToLongReduceTask(IntToLongReduceTask parent, int[] array, IntToLongFunction mapper, long identity,
+                                    LongBinaryOperator op, int start, int end, int threshold, IntToLongReduceTask next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.mapper = mapper;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        IntToLongReduceTask newSubtask(int start, int end, IntToLongReduceTask next) {
+            return new IntToLongReduceTask(this, array, mapper, identity, op, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            long r = identity;
+            for (int i = start; i < end; i++) {
+                r = op.applyAsLong(r, mapper.applyAsLong(array[i]));
+            }
+            result = r;
+        }
+
+        @Override
+        void merge(IntToLongReduceTask rightSubtask) {
+            result = op.applyAsLong(result, rightSubtask.result);
+        }
+
+    }
+
+    static final class ObjReduceTask<T, R> extends ArrayReduceTask<ObjReduceTask<T, R>> {
+
+        private final T[] array;
+        private final R identity;
+        private final BiFunction<R, ? super T, R> accumulator;
+        private final BinaryOperator<R> combiner;
+        private R result;
+
+        ObjReduceTask(T[] array, R identity, BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner,
+                      ForkJoinPool pool) {
+            this(null, array, identity, accumulator, combiner, 0, array.length,
+                    ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private ObjReduceTask(ObjReduceTask<T, R> parent, T[] array, R identity, BiFunction<R, ? super T, R> accumulator,
+                              BinaryOperator<R> combiner, int start, int end, int threshold, ObjReduceTask<T, R> next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        ObjReduceTask<T, R> newSubtask(int start, int end, ObjReduceTask<T, R> next) {
+            return new ObjReduceTask<>(this, array, identity, accumulator, combiner, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            R r = identity;
+            for (int i = start; i < end; i++) {
+                r = accumulator.apply(r, array[i]);
+            }
+            result = r;
+        }
+
+        @Override
+        void merge(ObjReduceTask<T, R> rightSubtask) {
+            result = combiner.apply(result, rightSubtask.result);
+        }
+
+    }
+
+    static final class IntCollectTask<R> extends ArrayReduceTask<IntCollectTask<R>> {
+
+        private final int[] array;
+        private final Supplier<R> supplier;
+        private final ObjIntConsumer<R> accumulator;
+        private final BiConsumer<R, R> combiner;
+        private R result;
+
+        IntCollectTask(int[] array, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner,
+                       ForkJoinPool pool) {
+            this(null, array, supplier, accumulator, combiner, 0, array.length,
+                    ArrayReduceTask.threshold(array.length, pool), null);
+        }
+
+        private IntCollectTask(IntCollectTask<R> parent, int[] array, Supplier<R> supplier, ObjIntConsumer<R> accumulator,
+                               BiConsumer<R, R> combiner, int start, int end, int threshold, IntCollectTask<R> next) {
+            super(parent, start, end, threshold, next);
+            this.array = array;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        IntCollectTask<R> newSubtask(int start, int end, IntCollectTask<R> next) {
+            return new IntCollectTask<>(this, array, supplier, accumulator, combiner, start, end, threshold, next);
+        }
+
+        @Override
+        void computeLeaf(int start, int end) {
+            R container = supplier.get();
+            for (int i = start; i < end; i++) {
+                accumulator.accept(container, array[i]);
+            }
+            result = container;
+        }
+
+        @Override
+        void merge(IntCollectTask<R> rightSubtask) {
+            combiner.accept(result, rightSubtask.result);
+        }
+
+    }
+
+}
@@ -2,22 +2,68 @@ package chapter07.forkjoin;
 
 import chapter07.ParallelStreams;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class ParallelStreamsHarness {
 
-    public static final ForkJoinPool FORK_JOIN_POOL = new ForkJoinPool();
+    public static final ForkJoinPool FORK_JOIN_POOL = ForkJoinPoolRegistry.get(ForkJoinPoolRegistry.DEFAULT_POOL);
 
     public static void main(String[] args) {
+        if (args.length > 0) { // csv 또는 json
+            report(args[0]);
+            return;
+        }
         System.out.println("\nIterative Sum done in: " + measurePerf(ParallelStreams::iterativeSum, 10_000_000L) + " msecs");
         System.out.println("\nSequential Sum done in: " + measurePerf(ParallelStreams::sequentialSum, 10_000_000L) + " msecs");
         System.out.println("\nParallel forkJoinSum done in: " + measurePerf(ParallelStreams::parallelSum, 10_000_000L) + " msecs");
+        System.out.println("\nSplittable parallel sum done in: " + measurePerf(ParallelStreams::splittableParallelSum, 10_000_000L) + " msecs");
         System.out.println("\nRange forkJoinSum done in: " + measurePerf(ParallelStreams::rangedSum, 10_000_000L) + " msecs");
         System.out.println("\nParallel range forkJoinSum done in: " + measurePerf(ParallelStreams::parallelRangedSum, 10_000_000L) + " msecs");
         System.out.println("\nForkJoin sum done in: " + measurePerf(ForkJoinSumCalculator::forkJoinSum, 10_000_000L) + " msecs");
+        System.out.println("\nAdaptive ForkJoin sum done in: " + measurePerf(AdaptiveForkJoinSumCalculator::forkJoinSum, 10_000_000L) + " msecs");
+        System.out.println("\nCountedCompleter range sum done in: " + measurePerf(ForkJoinLongSumCompleter::forkJoinSum, 10_000_000L) + " msecs");
         System.out.println("\nSideEffect sum done in: " + measurePerf(ParallelStreams::sideEffectSum, 10_000_000L) + " msecs");
         System.out.println("\nSideEffect parallel sum done in: " + measurePerf(ParallelStreams::sideEffectParallelSum, 10_000_000L) + " msecs");
+        System.out.println("\nAtomic parallel sum done in: " + measurePerf(ParallelStreams::atomicParallelSum, 10_000_000L) + " msecs");
+        System.out.println("\nStriped parallel sum done in: " + measurePerf(ParallelStreams::stripedParallelSum, 10_000_000L) + " msecs");
+        System.out.println("\nThreadLocal parallel sum done in: " + measurePerf(ParallelStreams::threadLocalParallelSum, 10_000_000L) + " msecs");
+    }
+
+    /**
+     * PerfHarness로 모든 합계 전략을 측정해서 CSV나 JSON으로 출력한다.
+     */
+    public static void report(String format) {
+        PerfHarness harness = new PerfHarness().warmup(5).measurement(20);
+        long n = 10_000_000L;
+        List<PerfHarness.Result> results = new ArrayList<>();
+        results.add(harness.measure("iterativeSum", ParallelStreams::iterativeSum, n));
+        results.add(harness.measure("sequentialSum", ParallelStreams::sequentialSum, n));
+        results.add(harness.measure("parallelSum", ParallelStreams::parallelSum, n));
+        results.add(harness.measure("splittableParallelSum", ParallelStreams::splittableParallelSum, n));
+        results.add(harness.measure("rangedSum", ParallelStreams::rangedSum, n));
+        results.add(harness.measure("parallelRangedSum", ParallelStreams::parallelRangedSum, n));
+        results.add(harness.measure("forkJoinSum", ForkJoinSumCalculator::forkJoinSum, n));
+        results.add(harness.measure("adaptiveForkJoinSum", AdaptiveForkJoinSumCalculator::forkJoinSum, n));
+        results.add(harness.measure("countedCompleterSum", ForkJoinLongSumCompleter::forkJoinSum, n));
+        results.add(harness.measure("sideEffectSum", ParallelStreams::sideEffectSum, n));
+        results.add(harness.measure("sideEffectParallelSum", ParallelStreams::sideEffectParallelSum, n));
+        results.add(harness.measure("atomicParallelSum", ParallelStreams::atomicParallelSum, n));
+        results.add(harness.measure("stripedParallelSum", ParallelStreams::stripedParallelSum, n));
+        results.add(harness.measure("threadLocalParallelSum", ParallelStreams::threadLocalParallelSum, n));
+
+        if ("json".equalsIgnoreCase(format)) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < results.size(); i++) {
+                json.append(i == 0 ? "\n  " : ",\n  ").append(results.get(i).toJson());
+            }
+            System.out.println(json.append("\n]"));
+        } else {
+            System.out.println(PerfHarness.Result.CSV_HEADER);
+            results.forEach(result -> System.out.println(result.toCsv()));
+        }
     }
 
     public static <T, R> long measurePerf(Function<T, R> f, T input) {
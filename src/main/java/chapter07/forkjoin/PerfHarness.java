@@ -0,0 +1,177 @@
+package chapter07.forkjoin;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * JMH를 포크하지 않고 빠르게 성능을 확인하기 위한 프로세스 내부 측정 도구.
+ * measurePerf와 달리 워밍업 반복을 분리하고, 나노초 단위 샘플의 분포와 연산당 할당량, GC 횟수를 함께 보고한다.
+ * 결과는 CSV나 JSON으로 출력해서 빌드 간의 성능 회귀를 비교할 수 있다.
+ */
+public class PerfHarness {
+
+    private static volatile int sink; // 결과를 소비해서 JIT가 측정 대상 코드를 제거하지 못하게 한다.
+
+    private int warmupIterations = 5;
+    private int measurementIterations = 10;
+
+    public PerfHarness warmup(int iterations) {
+        this.warmupIterations = iterations;
+        return this;
+    }
+
+    public PerfHarness measurement(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("At least one measurement iteration is required");
+        }
+        this.measurementIterations = iterations;
+        return this;
+    }
+
+    public <T, R> Result measure(String name, Function<T, R> f, T input) {
+        for (int i = 0; i < warmupIterations; i++) {
+            consume(f.apply(input));
+        }
+
+        long[] samples = new long[measurementIterations];
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < measurementIterations; i++) {
+            long start = System.nanoTime();
+            R result = f.apply(input);
+            samples[i] = System.nanoTime() - start;
+            consume(result); // 출력 같은 부수 작업 없이 결과만 소비
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        return new Result(name, samples,
+                allocated < 0 ? -1 : allocated / measurementIterations,
+                gcCount() - gcCountBefore,
+                gcTimeMillis() - gcTimeBefore);
+    }
+
+    private static void consume(Object result) {
+        sink ^= Objects.hashCode(result);
+    }
+
+    /**
+     * 살아있는 모든 스레드(포크/조인 워커 포함)가 할당한 바이트의 합.
+     * 측정 도중에 종료된 스레드의 할당량은 포함되지 않으며, JVM이 지원하지 않으면 -1을 반환한다.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    public static class Result {
+
+        public static final String CSV_HEADER = "name,iterations,mean_ns,p50_ns,p99_ns,max_ns,min_ns,alloc_bytes_per_op,gc_count,gc_time_ms";
+
+        private final String name;
+        private final long[] samples; // 오름차순 정렬된 나노초 단위 실행 시간
+        private final long allocatedBytesPerOp;
+        private final long gcCount;
+        private final long gcTimeMillis;
+
+        Result(String name, long[] samples, long allocatedBytesPerOp, long gcCount, long gcTimeMillis) {
+            this.name = name;
+            this.samples = samples.clone();
+            Arrays.sort(this.samples);
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+            this.gcCount = gcCount;
+            this.gcTimeMillis = gcTimeMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMean() {
+            return Arrays.stream(samples).average().orElse(0);
+        }
+
+        public long getMin() {
+            return samples[0];
+        }
+
+        public long getMax() {
+            return samples[samples.length - 1];
+        }
+
+        /**
+         * @param p 0과 1 사이의 백분위 (nearest-rank 방식)
+         */
+        public long percentile(double p) {
+            int rank = (int) Math.ceil(p * samples.length);
+            return samples[Math.max(0, Math.min(samples.length - 1, rank - 1))];
+        }
+
+        public long getAllocatedBytesPerOp() {
+            return allocatedBytesPerOp;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcTimeMillis() {
+            return gcTimeMillis;
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%.1f,%d,%d,%d,%d,%d,%d,%d",
+                    name, samples.length, getMean(), percentile(0.5), percentile(0.99), getMax(), getMin(),
+                    allocatedBytesPerOp, gcCount, gcTimeMillis);
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"name\":\"%s\",\"iterations\":%d,\"meanNs\":%.1f,\"p50Ns\":%d,\"p99Ns\":%d,\"maxNs\":%d,\"minNs\":%d,"
+                            + "\"allocBytesPerOp\":%d,\"gcCount\":%d,\"gcTimeMs\":%d}",
+                    name.replace("\\", "\\\\").replace("\"", "\\\""), samples.length, getMean(),
+                    percentile(0.5), percentile(0.99), getMax(), getMin(), allocatedBytesPerOp, gcCount, gcTimeMillis);
+        }
+
+        @Override
+        public String toString() {
+            return toCsv();
+        }
+
+    }
+
+}
@@ -0,0 +1,99 @@
+package chapter07.forkjoin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.LongStream;
+
+import static chapter07.forkjoin.ForkJoinSumCalculator.THRESHOLD;
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * ForkJoinSumCalculator와 같은 방식으로 분할하면서 태스크마다 깊이, 크기, 실행 스레드,
+ * 포크/시작/종료 시각과 스틸링 여부를 ForkJoinTaskTracer에 기록한다.
+ */
+public class TracingForkJoinSumCalculator extends RecursiveTask<Long> {
+
+    private final long[] numbers;
+    private final int start;
+    private final int end;
+    private final int depth;
+    private final ForkJoinTaskTracer tracer;
+    private final Thread forkingThread; // 이 태스크를 포크한 스레드 (루트 태스크는 null)
+    private final boolean sampled; // 포크할 때 기록 여부를 정해서 기록하지 않는 태스크는 시각을 읽지 않는다.
+    private final long forkNanos;
+
+    public TracingForkJoinSumCalculator(long[] numbers, ForkJoinTaskTracer tracer) {
+        this(numbers, 0, numbers.length, 0, tracer, null);
+    }
+
+    private TracingForkJoinSumCalculator(long[] numbers, int start, int end, int depth,
+                                         ForkJoinTaskTracer tracer, Thread forkingThread) {
+        this.numbers = numbers;
+        this.start = start;
+        this.end = end;
+        this.depth = depth;
+        this.tracer = tracer;
+        this.forkingThread = forkingThread;
+        this.sampled = tracer.sample();
+        this.forkNanos = sampled ? System.nanoTime() : 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long[] numbers = LongStream.rangeClosed(1, 10_000_000L).toArray();
+        ForkJoinTaskTracer tracer = new ForkJoinTaskTracer(FORK_JOIN_POOL, args.length > 1 ? Double.parseDouble(args[1]) : 1.0);
+        System.out.println("Result: " + FORK_JOIN_POOL.invoke(new TracingForkJoinSumCalculator(numbers, tracer)));
+        System.out.print(tracer.summary());
+
+        Path trace = Paths.get(args.length > 0 ? args[0] : "forkjoin-trace.json");
+        tracer.writeChromeTrace(trace);
+        System.out.println("Trace written to " + trace.toAbsolutePath());
+        tracer.clear();
+    }
+
+    @Override
+    protected Long compute() {
+        if (!sampled) { // 기록하지 않는 태스크는 시각을 측정하지 않는다.
+            return computeSum(null);
+        }
+        long startNanos = System.nanoTime();
+        Thread current = Thread.currentThread();
+        long[] joinWait = new long[1];
+        Long result = computeSum(joinWait);
+        tracer.record(new ForkJoinTaskTracer.TaskEvent(depth, start, end - start, current.getName(),
+                forkingThread != null && forkingThread != current, end - start <= THRESHOLD,
+                forkNanos, startNanos, System.nanoTime(), joinWait[0]));
+        return result;
+    }
+
+    /**
+     * @param joinWait 기록하는 태스크면 join을 기다린 시간을 저장할 배열, 아니면 null
+     */
+    private Long computeSum(long[] joinWait) {
+        int length = end - start;
+        if (length <= THRESHOLD) {
+            long sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += numbers[i];
+            }
+            return sum;
+        }
+
+        Thread current = Thread.currentThread();
+        TracingForkJoinSumCalculator leftTask =
+                new TracingForkJoinSumCalculator(numbers, start, start + length / 2, depth + 1, tracer, current);
+        leftTask.fork();
+        TracingForkJoinSumCalculator rightTask =
+                new TracingForkJoinSumCalculator(numbers, start + length / 2, end, depth + 1, tracer, current);
+        Long rightResult = rightTask.compute();
+
+        long joinStart = joinWait != null ? System.nanoTime() : 0;
+        Long leftResult = leftTask.join();
+        if (joinWait != null) {
+            joinWait[0] = System.nanoTime() - joinStart;
+        }
+        return leftResult + rightResult;
+    }
+
+}
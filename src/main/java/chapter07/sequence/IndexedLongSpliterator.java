@@ -0,0 +1,72 @@
+package chapter07.sequence;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * i번째 요소를 이전 요소 없이 바로 계산할 수 있는(jump-ahead) 수열의 Spliterator.
+ * Stream.iterate와 달리 인덱스 범위만 절반으로 나누면 되므로 O(1)로 분할되며 요소를 박싱하지 않는다.
+ */
+public abstract class IndexedLongSpliterator implements Spliterator.OfLong {
+
+    protected long index; // 다음에 제공할 요소의 인덱스
+    protected final long end;
+
+    protected IndexedLongSpliterator(long start, long end) {
+        if (start < 0 || start > end) {
+            throw new IllegalArgumentException("Invalid index range [" + start + ", " + end + ")");
+        }
+        this.index = start;
+        this.end = end;
+    }
+
+    /**
+     * @return 수열의 index번째 요소
+     */
+    protected abstract long valueAt(long index);
+
+    /**
+     * [start, end) 인덱스 범위를 담당하는 같은 수열의 Spliterator를 생성한다.
+     */
+    protected abstract IndexedLongSpliterator slice(long start, long end);
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(valueAt(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        long i = index;
+        index = end;
+        for (; i < end; i++) {
+            action.accept(valueAt(i));
+        }
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        long mid = index + (end - index) / 2;
+        if (mid == index) {
+            return null;
+        }
+        Spliterator.OfLong prefix = slice(index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED + SIZED + SUBSIZED + NONNULL + IMMUTABLE;
+    }
+
+}
@@ -0,0 +1,227 @@
+package chapter07.sequence;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Stream.iterate로 만들던 수열을 분할 가능한 기본형 스트림으로 생성한다.
+ * 모든 수열은 i번째 요소를 O(1) (등비수열은 O(log i))에 계산하므로 LongStream.rangeClosed처럼 병렬화된다.
+ * 등비수열과 같이 long 범위를 넘는 값은 반복해서 곱한 결과와 마찬가지로 오버플로된다.
+ */
+public final class Sequences {
+
+    private Sequences() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println(arithmetic(1, 1, 10_000_000).parallel().sum());
+        System.out.println(arithmetic(10, -3, 5).boxed().collect(toList()));
+        System.out.println(geometric(1, 2, 10).boxed().collect(toList()));
+        System.out.println(stride(0, 5, 5).boxed().collect(toList()));
+        System.out.println(random(42, 3).boxed().collect(toList()));
+    }
+
+    /**
+     * Stream.iterate(first, i -> i + step).limit(count)와 같은 등차수열
+     */
+    public static LongStream arithmetic(long first, long step, long count) {
+        return StreamSupport.longStream(new ArithmeticSpliterator(first, step, 0, requireNonNegative(count)), false);
+    }
+
+    /**
+     * Stream.iterate(first, i -> i * ratio).limit(count)와 같은 등비수열
+     */
+    public static LongStream geometric(long first, long ratio, long count) {
+        return StreamSupport.longStream(new GeometricSpliterator(first, ratio, 0, requireNonNegative(count)), false);
+    }
+
+    /**
+     * IntStream.iterate(start, i -> i + stride).limit(count)와 같은 일정 간격의 카운터
+     */
+    public static IntStream stride(int start, int stride, int count) {
+        return StreamSupport.intStream(new StrideSpliterator(start, stride, 0, requireNonNegative(count)), false);
+    }
+
+    /**
+     * 같은 seed면 항상 같은 순서로 생성되는 의사 난수 수열 (SplitMix64)
+     * 분할 방식과 관계없이 i번째 요소는 항상 같은 값이므로 병렬 스트림에서도 결과를 재현할 수 있다.
+     */
+    public static LongStream random(long seed, long count) {
+        return StreamSupport.longStream(new SplitMix64Spliterator(seed, 0, requireNonNegative(count)), false);
+    }
+
+    // Stream.limit처럼 음수 개수는 거부한다.
+    private static long requireNonNegative(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException(Long.toString(count));
+        }
+        return count;
+    }
+
+    private static int requireNonNegative(int count) {
+        return (int) requireNonNegative((long) count);
+    }
+
+    static final class ArithmeticSpliterator extends IndexedLongSpliterator {
+
+        private final long first;
+        private final long step;
+
+        ArithmeticSpliterator(long first, long step, long start, long end) {
+            super(start, end);
+            this.first = first;
+            this.step = step;
+        }
+
+        @Override
+        protected long valueAt(long index) {
+            return first + index * step;
+        }
+
+        @Override
+        protected IndexedLongSpliterator slice(long start, long end) {
+            return new ArithmeticSpliterator(first, step, start, end);
+        }
+
+    }
+
+    static final class GeometricSpliterator extends IndexedLongSpliterator {
+
+        private final long first;
+        private final long ratio;
+
+        GeometricSpliterator(long first, long ratio, long start, long end) {
+            super(start, end);
+            this.first = first;
+            this.ratio = ratio;
+        }
+
+        // 거듭제곱을 제곱의 반복으로 계산 (O(log index))
+        @Override
+        protected long valueAt(long index) {
+            long result = first;
+            long base = ratio;
+            for (long e = index; e > 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    result *= base;
+                }
+                base *= base;
+            }
+            return result;
+        }
+
+        // 첫 요소만 점프해서 계산하고 나머지는 이전 요소에 곱한다.
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (index >= end) {
+                return;
+            }
+            long value = valueAt(index);
+            long remaining = end - index;
+            index = end;
+            action.accept(value);
+            for (long i = 1; i < remaining; i++) {
+                value *= ratio;
+                action.accept(value);
+            }
+        }
+
+        @Override
+        protected IndexedLongSpliterator slice(long start, long end) {
+            return new GeometricSpliterator(first, ratio, start, end);
+        }
+
+    }
+
+    static final class SplitMix64Spliterator extends IndexedLongSpliterator {
+
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+        private final long seed;
+
+        SplitMix64Spliterator(long seed, long start, long end) {
+            super(start, end);
+            this.seed = seed;
+        }
+
+        // SplitMix64의 i번째 상태는 seed + (i + 1) * GAMMA이므로 바로 계산할 수 있다.
+        @Override
+        protected long valueAt(long index) {
+            long z = seed + (index + 1) * GOLDEN_GAMMA;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        protected IndexedLongSpliterator slice(long start, long end) {
+            return new SplitMix64Spliterator(seed, start, end);
+        }
+
+    }
+
+    static final class StrideSpliterator implements Spliterator.OfInt {
+
+        private final int first;
+        private final int stride;
+        private int index;
+        private final int end;
+
+        StrideSpliterator(int first, int stride, int start, int end) {
+            if (start < 0 || start > end) {
+                throw new IllegalArgumentException("Invalid index range [" + start + ", " + end + ")");
+            }
+            this.first = first;
+            this.stride = stride;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(first + index++ * stride);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int i = index;
+            index = end;
+            for (; i < end; i++) {
+                action.accept(first + i * stride);
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int mid = index + (end - index) / 2;
+            if (mid == index) {
+                return null;
+            }
+            Spliterator.OfInt prefix = new StrideSpliterator(first, stride, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED + SIZED + SUBSIZED + NONNULL + IMMUTABLE;
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package chapter07.wordcount;
+
+/**
+ * 텍스트 청크 하나의 단어 수와 청크 경계의 상태를 저장하는 가변 누적자.
+ * WordCounter와 달리 문자마다 새 객체를 만들지 않고, 청크의 첫 문자와 마지막 문자가 단어의 일부인지 기억하므로
+ * 공백이 아닌 임의의 위치에서 분할한 청크도 O(1)로 합칠 수 있다.
+ */
+public class ChunkWordCounter {
+
+    private long counter;
+    private boolean empty = true; // 아직 아무 문자도 누적하지 않음
+    private boolean startsInWord; // 청크의 첫 문자가 공백이 아님
+    private boolean endsInWord; // 청크의 마지막 문자가 공백이 아님
+
+    /**
+     * 문자(또는 코드 포인트) 하나를 누적한다.
+     */
+    public void accept(int c) {
+        boolean word = !Character.isWhitespace(c);
+        if (empty) {
+            startsInWord = word;
+            empty = false;
+        }
+        if (word && !endsInWord) { // 공백 다음에 공백이 아닌 문자가 나오면 새 단어가 시작된다.
+            counter++;
+        }
+        endsInWord = word;
+    }
+
+    /**
+     * [start, end) 구간의 문자를 지역 변수만 사용하는 루프로 누적한다.
+     */
+    public void accept(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        long count = counter;
+        boolean inWord = endsInWord;
+        if (empty) {
+            startsInWord = !Character.isWhitespace(s.charAt(start));
+            empty = false;
+        }
+        for (int i = start; i < end; i++) {
+            boolean word = !Character.isWhitespace(s.charAt(i));
+            if (word && !inWord) {
+                count++;
+            }
+            inWord = word;
+        }
+        counter = count;
+        endsInWord = inWord;
+    }
+
+    /**
+     * 바로 오른쪽 청크의 결과를 합친다.
+     * 왼쪽 청크가 단어 중간에서 끝나고 오른쪽 청크가 단어 중간에서 시작하면 같은 단어를 두 번 센 것이다.
+     */
+    public ChunkWordCounter combine(ChunkWordCounter right) {
+        if (right.empty) {
+            return this;
+        }
+        if (empty) {
+            startsInWord = right.startsInWord;
+            empty = false;
+        } else if (endsInWord && right.startsInWord) {
+            counter--;
+        }
+        counter += right.counter;
+        endsInWord = right.endsInWord;
+        return this;
+    }
+
+    public long getCounter() {
+        return counter;
+    }
+
+}
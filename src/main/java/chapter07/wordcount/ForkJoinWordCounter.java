@@ -0,0 +1,50 @@
+package chapter07.wordcount;
+
+import java.util.concurrent.RecursiveTask;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * Stream<Character>를 거치지 않고 CharSequence를 직접 분할해서 단어 수를 세는 포크/조인 태스크.
+ * 청크 경계를 공백에 맞추지 않아도 ChunkWordCounter.combine이 경계에 걸친 단어를 보정하므로
+ * 분할할 때 문자열을 탐색하거나 복사할 필요가 없다.
+ */
+public class ForkJoinWordCounter extends RecursiveTask<ChunkWordCounter> {
+
+    public static final int THRESHOLD = 1 << 16; // 이 길이 이하의 청크는 순차적으로 센다.
+
+    private final CharSequence text;
+    private final int start;
+    private final int end;
+
+    public ForkJoinWordCounter(CharSequence text) {
+        this(text, 0, text.length());
+    }
+
+    private ForkJoinWordCounter(CharSequence text, int start, int end) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected ChunkWordCounter compute() {
+        int length = end - start;
+        if (length <= THRESHOLD) {
+            ChunkWordCounter counter = new ChunkWordCounter();
+            counter.accept(text, start, end);
+            return counter;
+        }
+
+        int middle = start + length / 2;
+        ForkJoinWordCounter leftTask = new ForkJoinWordCounter(text, start, middle);
+        leftTask.fork();
+        ChunkWordCounter rightResult = new ForkJoinWordCounter(text, middle, end).compute();
+        return leftTask.join().combine(rightResult); // 왼쪽 결과에 오른쪽 결과를 합쳐야 경계를 올바르게 보정한다.
+    }
+
+    public static long countWords(CharSequence text) {
+        return FORK_JOIN_POOL.invoke(new ForkJoinWordCounter(text)).getCounter();
+    }
+
+}
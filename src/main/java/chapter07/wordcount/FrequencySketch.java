@@ -0,0 +1,249 @@
+package chapter07.wordcount;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 단어별 빈도를 고정된 메모리로 추정하는 Count-Min 스케치와 상위 K개의 후보 단어 테이블.
+ * 같은 크기의 스케치끼리는 셀 단위로 더하기만 하면 되므로 포크/조인 청크의 결과를 합칠 수 있다.
+ * 추정 빈도는 실제 빈도보다 작아지지 않으며, 다른 단어와의 해시 충돌만큼 커질 수 있다.
+ *
+ * 후보 단어는 해시로 찾고 원문 구간과 문자를 비교해서 확인하므로 이미 후보인 단어가 다시 나와도 String을 만들지 않는다.
+ * 후보는 추정 빈도의 최소 힙으로도 관리해서 가장 빈도가 낮은 후보를 O(1)에 찾고 O(log k)에 갱신한다.
+ */
+public class FrequencySketch {
+
+    public static final int DEFAULT_WIDTH = 1 << 14;
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int MAX_K = 1 << 20; // 후보 테이블의 크기(4k 이하)가 int 범위를 넘지 않도록 제한
+
+    private final int width; // 2의 거듭제곱
+    private final int depth;
+    private final long[] table; // depth개의 행을 한 배열에 이어 붙임
+    private final int k;
+    private final Candidate[] slots; // 후보 단어의 해시 테이블 (선형 탐사, 크기는 2의 거듭제곱)
+    private final Candidate[] heap; // 추정 빈도 상위 k개의 후보 단어 (최소 힙)
+    private int size;
+
+    public FrequencySketch(int k) {
+        this(k, DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    public FrequencySketch(int k, int width, int depth) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K + ": " + k);
+        }
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two: " + width);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.table = new long[width * depth];
+        this.k = k;
+        this.slots = new Candidate[Integer.highestOneBit(k) << 2]; // 채움 비율을 1/2 이하로 유지
+        this.heap = new Candidate[k];
+    }
+
+    /**
+     * text의 [start, end) 구간을 단어 하나로 추가한다.
+     * 후보가 아닌 단어가 후보 테이블에 새로 들어갈 때만 String을 만든다.
+     */
+    public void add(CharSequence text, int start, int end) {
+        long hash = hash(text, start, end);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + index(hash, row);
+            estimate = Math.min(estimate, ++table[index]);
+        }
+        Candidate candidate = find(hash, text, start, end);
+        if (candidate != null) {
+            candidate.count = estimate;
+            siftDown(candidate.heapIndex);
+        } else if (size < k || estimate > heap[0].count) {
+            offer(text.subSequence(start, end).toString(), hash, estimate);
+        }
+    }
+
+    public long estimate(String word) {
+        long hash = hash(word, 0, word.length());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row * width + index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * 같은 크기의 스케치를 합친다. 후보 단어는 합친 스케치로 빈도를 다시 추정해서 상위 k개만 남긴다.
+     */
+    public FrequencySketch merge(FrequencySketch other) {
+        if (width != other.width || depth != other.depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different sizes");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        List<String> words = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            words.add(heap[i].word);
+        }
+        for (int i = 0; i < other.size; i++) {
+            if (find(other.heap[i].hash, other.heap[i].word, 0, other.heap[i].word.length()) == null) {
+                words.add(other.heap[i].word);
+            }
+        }
+        Arrays.fill(slots, null);
+        size = 0;
+        for (String word : words) {
+            offer(word, hash(word, 0, word.length()), estimate(word));
+        }
+        return this;
+    }
+
+    /**
+     * @return 추정 빈도 내림차순으로 정렬한 상위 k개의 단어
+     */
+    public List<Map.Entry<String, Long>> topK() {
+        List<Map.Entry<String, Long>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(heap[i].word, heap[i].count));
+        }
+        result.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return result;
+    }
+
+    // 후보가 아닌 단어를 추가한다. 후보가 가득 찼으면 가장 빈도가 낮은 후보를 교체한다.
+    private void offer(String word, long hash, long estimate) {
+        Candidate candidate;
+        if (size < k) {
+            candidate = new Candidate();
+            candidate.heapIndex = size;
+            heap[size++] = candidate;
+        } else if (estimate > heap[0].count) {
+            candidate = heap[0];
+            remove(candidate);
+        } else {
+            return;
+        }
+        candidate.word = word;
+        candidate.hash = hash;
+        candidate.count = estimate;
+        insert(candidate);
+        siftUp(candidate.heapIndex);
+        siftDown(candidate.heapIndex);
+    }
+
+    private Candidate find(long hash, CharSequence text, int start, int end) {
+        int mask = slots.length - 1;
+        for (int i = (int) hash & mask; slots[i] != null; i = (i + 1) & mask) {
+            Candidate c = slots[i];
+            if (c.hash == hash && regionEquals(c.word, text, start, end)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionEquals(String word, CharSequence text, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(Candidate candidate) {
+        int mask = slots.length - 1;
+        int i = (int) candidate.hash & mask;
+        while (slots[i] != null) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = candidate;
+    }
+
+    // 선형 탐사 테이블에서 지운 자리 뒤의 항목을 앞으로 당겨서 탐색 경로가 끊어지지 않게 한다.
+    private void remove(Candidate candidate) {
+        int mask = slots.length - 1;
+        int i = (int) candidate.hash & mask;
+        while (slots[i] != candidate) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = null;
+        for (int j = (i + 1) & mask; slots[j] != null; j = (j + 1) & mask) {
+            Candidate moved = slots[j];
+            slots[j] = null;
+            insert(moved);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= heap[i].count) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && heap[left + 1].count < heap[left].count ? left + 1 : left;
+            if (heap[i].count <= heap[smallest].count) {
+                break;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Candidate tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        heap[i].heapIndex = i;
+        heap[j].heapIndex = j;
+    }
+
+    private int index(long hash, int row) {
+        // 두 개의 32비트 해시를 조합해서 행마다 독립적인 해시를 만든다.
+        int h = (int) hash + row * (int) (hash >>> 32);
+        return h & (width - 1);
+    }
+
+    private static long hash(CharSequence text, int start, int end) {
+        long h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        // 비트를 고르게 섞는다. (MurmurHash3의 fmix64)
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class Candidate {
+
+        String word;
+        long hash;
+        long count; // 추정 빈도
+        int heapIndex;
+
+    }
+
+}
@@ -0,0 +1,185 @@
+package chapter07.wordcount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * WordCounterSpliterator와 같은 방식으로 분할하지만, 메모리에 올린 String 대신
+ * 메모리 매핑한 파일 영역의 UTF-8 바이트를 코드 포인트로 하나씩 디코딩하면서 탐색하는 Spliterator.
+ * 분할할 때는 바이트 오프셋만 나누므로 파일 내용을 복사하지 않는다.
+ *
+ * 각 Spliterator는 탐색 중인 위치의 MAX_WINDOW_SIZE 영역만 매핑한다.
+ * 자바 8에는 매핑을 해제하는 공개 API가 없어서 지나간 영역은 MappedByteBuffer가 GC될 때 해제되므로,
+ * 창을 작게 유지해서 동시에 탐색하는 Spliterator들이 차지하는 가상 주소 공간을 (스레드 수 x 창 크기) 정도로 제한한다.
+ * 잘못된 UTF-8 시퀀스(연속 바이트가 아닌 바이트로 끊긴 시퀀스, 잘못된 첫 바이트, 영역 끝에서 잘린 시퀀스)는
+ * CharsetDecoder의 REPLACE처럼 U+FFFD 하나로 바꾸고, 시퀀스를 끊은 바이트부터 다시 디코딩한다.
+ */
+public class MappedWordCounterSpliterator implements Spliterator.OfInt {
+
+    public static final int MIN_SPLIT_SIZE = 1 << 20; // 1MB 이하의 영역은 더 이상 분할하지 않는다.
+
+    private static final int MAX_WINDOW_SIZE = 1 << 26; // 한 번에 매핑할 최대 크기 (64MB)
+    private static final int SCAN_WINDOW_SIZE = 1 << 16; // 분할 위치에서 공백을 찾을 최대 범위
+    private static final int SCAN_BUFFER_SIZE = 1 << 12; // 공백을 찾을 때 한 번에 읽을 크기
+    private static final int REPLACEMENT_CHAR = 0xFFFD; // 잘못된 UTF-8 시퀀스를 대체할 문자
+
+    private final FileChannel channel;
+    private long position; // 다음에 디코딩할 바이트의 파일 오프셋
+    private final long end;
+
+    private MappedByteBuffer window; // 현재 매핑된 영역
+    private long windowStart;
+
+    public MappedWordCounterSpliterator(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (position >= end) {
+            return false;
+        }
+        action.accept(nextCodePoint());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        while (position < end) {
+            action.accept(nextCodePoint());
+        }
+    }
+
+    /**
+     * 남은 영역의 중간 오프셋부터 다음 ASCII 공백 바이트를 찾아 분할한다.
+     * UTF-8의 멀티바이트 시퀀스에는 0x80 미만의 바이트가 나오지 않으므로 공백 바이트 위치는 항상 문자 경계다.
+     * 공백은 보통 분할 위치 바로 뒤에 있으므로 영역을 새로 매핑하지 않고 작은 힙 버퍼로 조금씩 읽는다.
+     */
+    @Override
+    public Spliterator.OfInt trySplit() {
+        long remaining = end - position;
+        if (remaining < MIN_SPLIT_SIZE) {
+            return null;
+        }
+
+        long mid = position + remaining / 2;
+        long splitPos = findWhitespace(mid, Math.min(end, mid + SCAN_WINDOW_SIZE));
+        if (splitPos < 0) {
+            return null; // 공백이 없는 아주 긴 토큰이면 분할하지 않는다.
+        }
+        Spliterator.OfInt prefix = new MappedWordCounterSpliterator(channel, position, splitPos);
+        position = splitPos; // 현재 창이 남은 영역을 덮고 있으면 그대로 사용한다.
+        return prefix;
+    }
+
+    /**
+     * @return [from, to)에서 처음 나오는 ASCII 공백 바이트의 오프셋, 없으면 -1
+     */
+    private long findWhitespace(long from, long to) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, to - from));
+        long offset = from;
+        while (offset < to) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), to - offset));
+            int read = read(buffer, offset);
+            if (read <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b >= 0 && Character.isWhitespace(b)) {
+                    return offset + i;
+                }
+            }
+            offset += read;
+        }
+        return -1;
+    }
+
+    /**
+     * @return 남은 바이트 수 (멀티바이트 문자가 있으면 실제 문자 수보다 크다.)
+     */
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED + NONNULL + IMMUTABLE;
+    }
+
+    private int nextCodePoint() {
+        int b = byteAt(position) & 0xFF;
+        if (b < 0x80) { // ASCII
+            position++;
+            return b;
+        }
+
+        int length;
+        int codePoint;
+        if (b >= 0xF8) { // UTF-8에서 사용하지 않는 첫 바이트
+            position++;
+            return REPLACEMENT_CHAR;
+        } else if (b >= 0xF0) {
+            length = 4;
+            codePoint = b & 0x07;
+        } else if (b >= 0xE0) {
+            length = 3;
+            codePoint = b & 0x0F;
+        } else if (b >= 0xC0) {
+            length = 2;
+            codePoint = b & 0x1F;
+        } else { // 시퀀스 중간의 바이트
+            position++;
+            return REPLACEMENT_CHAR;
+        }
+
+        for (int i = 1; i < length; i++) {
+            if (position + i >= end) { // 영역 끝에서 잘린 시퀀스
+                position = end;
+                return REPLACEMENT_CHAR;
+            }
+            int c = byteAt(position + i);
+            if ((c & 0xC0) != 0x80) { // 연속 바이트(10xxxxxx)가 아니면 이 바이트부터 다시 디코딩한다.
+                position += i;
+                return REPLACEMENT_CHAR;
+            }
+            codePoint = (codePoint << 6) | (c & 0x3F);
+        }
+        position += length;
+        return codePoint;
+    }
+
+    private byte byteAt(long offset) {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            windowStart = offset;
+            window = map(offset, (int) Math.min(MAX_WINDOW_SIZE, end - offset));
+        }
+        return window.get((int) (offset - windowStart));
+    }
+
+    private int read(ByteBuffer buffer, long offset) {
+        try {
+            return channel.read(buffer, offset); // 위치를 지정한 읽기는 채널의 위치를 바꾸지 않으므로 여러 스레드가 공유할 수 있다.
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer map(long offset, int size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package chapter07.wordcount;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import static chapter07.forkjoin.ParallelStreamsHarness.FORK_JOIN_POOL;
+
+/**
+ * WordCounter처럼 문자를 탐색하면서 단어 수를 세고, 같은 탐색에서 줄 수, 문자 수, 가장 긴 단어와
+ * 단어 빈도 상위 K개까지 함께 계산한다. (wc + 빈도 스케치)
+ * 청크를 공백 위치에서 분할하므로 단어가 두 청크에 걸치지 않고, 청크의 결과는 combine으로 합칠 수 있다.
+ */
+public class TextStatistics {
+
+    // 리프 청크의 크기와 빈도 스케치의 크기를 함께 정한다.
+    // 1M 문자(2MB)의 청크마다 16384 x 4개의 long(512KB) 스케치를 만들므로 스케치를 만들고 합치는 비용이
+    // 청크를 탐색하는 비용보다 훨씬 작다. (스케치의 추정 오차는 전체 단어 수의 약 e / 16384)
+    // 이보다 짧은 텍스트는 병렬로 나누지 않지만 순차 탐색도 수 ms면 끝난다.
+    static final int LEAF_SIZE = 1 << 20;
+    static final int SKETCH_WIDTH = LEAF_SIZE >>> 6;
+
+    private long words;
+    private long lines;
+    private long chars;
+    private String longestWord = "";
+    private final FrequencySketch frequencies;
+
+    public TextStatistics(int k) {
+        this.frequencies = new FrequencySketch(k, SKETCH_WIDTH, FrequencySketch.DEFAULT_DEPTH);
+    }
+
+    public static void main(String[] args) {
+        TextStatistics statistics = of(WordCount.SENTENCE + "\nla via\n", 3);
+        System.out.println(statistics);
+    }
+
+    /**
+     * [start, end) 구간의 문자를 누적한다. 구간의 양 끝은 단어 경계여야 한다.
+     */
+    public void accept(CharSequence text, int start, int end) {
+        int wordStart = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lines++;
+            }
+            if (Character.isWhitespace(c)) {
+                if (wordStart >= 0) {
+                    acceptWord(text, wordStart, i);
+                    wordStart = -1;
+                }
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+        }
+        if (wordStart >= 0) {
+            acceptWord(text, wordStart, end);
+        }
+        chars += end - start;
+    }
+
+    private void acceptWord(CharSequence text, int start, int end) {
+        words++;
+        if (end - start > longestWord.length()) {
+            longestWord = text.subSequence(start, end).toString();
+        }
+        frequencies.add(text, start, end);
+    }
+
+    /**
+     * 바로 오른쪽 청크의 결과를 합친다.
+     */
+    public TextStatistics combine(TextStatistics right) {
+        words += right.words;
+        lines += right.lines;
+        chars += right.chars;
+        if (right.longestWord.length() > longestWord.length()) {
+            longestWord = right.longestWord;
+        }
+        frequencies.merge(right.frequencies);
+        return this;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getChars() {
+        return chars;
+    }
+
+    public String getLongestWord() {
+        return longestWord;
+    }
+
+    public List<Map.Entry<String, Long>> getTopWords() {
+        return frequencies.topK();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TextStatistics{words=%d, lines=%d, chars=%d, longestWord='%s', topWords=%s}",
+                words, lines, chars, longestWord, getTopWords());
+    }
+
+    /**
+     * 한 번의 병렬 탐색으로 text의 통계를 계산한다.
+     *
+     * @param k 빈도를 보고할 상위 단어 개수
+     */
+    public static TextStatistics of(CharSequence text, int k) {
+        return FORK_JOIN_POOL.invoke(new TextStatisticsTask(text, 0, text.length(), k));
+    }
+
+    private static class TextStatisticsTask extends RecursiveTask<TextStatistics> {
+
+        private final CharSequence text;
+        private final int start;
+        private final int end;
+        private final int k;
+
+        TextStatisticsTask(CharSequence text, int start, int end, int k) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.k = k;
+        }
+
+        @Override
+        protected TextStatistics compute() {
+            int splitPos = end - start > LEAF_SIZE ? findSplitPosition() : -1;
+            if (splitPos < 0) {
+                TextStatistics statistics = new TextStatistics(k);
+                statistics.accept(text, start, end);
+                return statistics;
+            }
+
+            TextStatisticsTask leftTask = new TextStatisticsTask(text, start, splitPos, k);
+            leftTask.fork();
+            TextStatistics rightResult = new TextStatisticsTask(text, splitPos, end, k).compute();
+            return leftTask.join().combine(rightResult);
+        }
+
+        // WordCounterSpliterator.trySplit과 같이 중간 위치에서 다음 공백까지 분할 위치를 뒤로 이동시킨다.
+        private int findSplitPosition() {
+            for (int splitPos = start + (end - start) / 2; splitPos < end; splitPos++) {
+                if (Character.isWhitespace(text.charAt(splitPos))) {
+                    return splitPos;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -1,5 +1,10 @@
 package chapter07.wordcount;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Spliterator;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -12,9 +17,13 @@ public class WordCount {
                     + "mi  ritrovai in una  selva oscura"
                     + " che la  dritta via era   smarrita ";
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("Found " + countWordsIteratively(SENTENCE) + " words");
         System.out.println("Found " + countWords(SENTENCE) + " words");
+        System.out.println("Found " + ForkJoinWordCounter.countWords(SENTENCE) + " words");
+        if (args.length > 0) {
+            System.out.println("Found " + countWords(Paths.get(args[0])) + " words in " + args[0]);
+        }
     }
 
     // 반복형
@@ -47,6 +56,16 @@ public class WordCount {
         return countWords(stream);
     }
 
+    // 메모리 매핑한 파일을 병렬 스트림으로 탐색
+    public static long countWords(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Spliterator.OfInt spliterator = new MappedWordCounterSpliterator(channel, 0, channel.size());
+            return StreamSupport.intStream(spliterator, true)
+                    .collect(ChunkWordCounter::new, ChunkWordCounter::accept, ChunkWordCounter::combine)
+                    .getCounter();
+        }
+    }
+
     private static int countWords(Stream<Character> stream) {
         WordCounter wordCounter = stream.reduce(
                 new WordCounter(0, true),
@@ -5,23 +5,53 @@ import java.util.function.Consumer;
 
 public class WordCounterSpliterator implements Spliterator<Character> {
 
-    private final String string;
-    private int currentChar = 0;
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 1024;
+
+    private final CharSequence source; // 분할된 모든 WordCounterSpliterator가 공유하는 원본 문자열
+    private int currentChar;
+    private final int end;
+    private final int minChunkSize; // 남은 문자 수가 이 값보다 작으면 더 이상 분할하지 않는다.
 
     public WordCounterSpliterator(String string) {
-        this.string = string;
+        this(string, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    public WordCounterSpliterator(CharSequence source, int minChunkSize) {
+        this(source, 0, source.length(), minChunkSize);
+    }
+
+    private WordCounterSpliterator(CharSequence source, int start, int end, int minChunkSize) {
+        this.source = source;
+        this.currentChar = start;
+        this.end = end;
+        this.minChunkSize = minChunkSize;
     }
 
     /**
      * 문자열에서 현재 인덱스에 해당하는 문자를 Consumer에 제공한 다음, 인데스를 증가시킨다.
      *
      * @param action 소비한 문자를 전달
-     * @return 소비할 문자가 남아있으면 true를 반환 (반복해야 할 문자가 남아있음을 의미)
+     * @return 소비한 문자가 있으면 true를 반환 (빈 문자열이거나 모두 소비했으면 false)
      */
     @Override
     public boolean tryAdvance(Consumer<? super Character> action) {
-        action.accept(string.charAt(currentChar++)); // 현재 문자를 소비
-        return currentChar < string.length();
+        if (currentChar >= end) {
+            return false;
+        }
+        action.accept(source.charAt(currentChar++)); // 현재 문자를 소비
+        return true;
+    }
+
+    /**
+     * 남은 문자를 tryAdvance를 반복 호출하지 않고 한 번에 소비한다.
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super Character> action) {
+        int i = currentChar;
+        currentChar = end;
+        for (; i < end; i++) {
+            action.accept(source.charAt(i));
+        }
     }
 
     /**
@@ -32,18 +62,18 @@ public class WordCounterSpliterator implements Spliterator<Character> {
      */
     @Override
     public Spliterator<Character> trySplit() {
-        int currentSize = string.length() - currentChar;
-        if (currentSize < 10) {
+        int currentSize = end - currentChar;
+        if (currentSize < minChunkSize) {
             return null; // 파싱할 문자열이 순차 처리할 수 있을 만큼 충분히 작아졌음을 알림
         }
 
         // 1. 파싱할 문자열의 중간을 분할 위치로 설정
-        for (int splitPos = currentSize / 2 + currentChar; splitPos < string.length(); splitPos++) {
+        for (int splitPos = currentSize / 2 + currentChar; splitPos < end; splitPos++) {
             // 2. 다음 공백이 나올 때까지 분할 위치를 뒤로 이동시킴
-            if (Character.isWhitespace(string.charAt(splitPos))) {
+            if (Character.isWhitespace(source.charAt(splitPos))) {
 
-                // 3. 처음부터 분할위치까지 문자열을 파싱할 새로운 WordCounterSpliterator를 생성
-                Spliterator<Character> spliterator = new WordCounterSpliterator(string.substring(currentChar, splitPos));
+                // 3. 처음부터 분할위치까지 문자열을 파싱할 새로운 WordCounterSpliterator를 생성 (원본 문자열을 복사하지 않고 인덱스만 나눔)
+                Spliterator<Character> spliterator = new WordCounterSpliterator(source, currentChar, splitPos, minChunkSize);
 
                 // 4. 이 WordCounterSpliterator의 시작 위치를 분할 위치로 설정
                 currentChar = splitPos;
@@ -60,7 +90,7 @@ public class WordCounterSpliterator implements Spliterator<Character> {
      */
     @Override
     public long estimateSize() {
-        return string.length() - currentChar;
+        return end - currentChar;
     }
 
     /**
@@ -72,7 +102,7 @@ public class WordCounterSpliterator implements Spliterator<Character> {
                 + SIZED // estimatedSize의 메서드의 반환값이 정확함
                 + SUBSIZED // trySplit으로 생성된 Spliterator도 정확한 크기를 가짐
                 + NONNULL // 문자열에는 null 문자가 존재하지 않음
-                + IMMUTABLE // 문자열 자체가 불변 클래스이므로 문자열을 파싱하면서 속성이 추가되지 않음
+                + IMMUTABLE // 탐색하는 동안 원본 문자열을 변경하지 않음
                 ;
     }
 